@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.springframework.boot") version "3.3.5"
     id("io.spring.dependency-management") version "1.1.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.drop_database"
@@ -25,6 +26,13 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-mail")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
+    // Caching
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
+    // Full-text search
+    implementation("org.apache.lucene:lucene-core:9.11.1")
 
     // Jakarta
     implementation("jakarta.persistence:jakarta.persistence-api")
@@ -50,6 +58,7 @@ dependencies {
     testImplementation("org.springframework.security:spring-security-test")
     testImplementation("com.fasterxml.jackson.core:jackson-databind")
     testImplementation("org.jeasy:easy-random-core:4.0.0")
+    testImplementation("com.squareup.okhttp3:mockwebserver")
 
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -57,3 +66,11 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
 }
+
+// Benchmarks, run with: ./gradlew jmh
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,72 @@
+package movie_master.api.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import movie_master.api.model.role.Role;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of generating and parsing jwts with the cached key and parser of DefaultJwtUtil
+ * against the previous approach, where the key and parser were built again on every call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DefaultJwtUtilBenchmark {
+    private final Map<String, Object> claims = Map.of("userId", 1L, "role", Role.ROLE_USER.toString());
+    private String secret;
+    private DefaultJwtUtil defaultJwtUtil;
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        secret = Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+        defaultJwtUtil = new DefaultJwtUtil(secret);
+        jwt = defaultJwtUtil.generateJwt(claims, "benchmark");
+    }
+
+    @Benchmark
+    public String generateJwtCached() {
+        return defaultJwtUtil.generateJwt(claims, "benchmark");
+    }
+
+    @Benchmark
+    public Claims extractClaimsCached() {
+        return defaultJwtUtil.extractClaims(jwt);
+    }
+
+    @Benchmark
+    public String generateJwtUncached() {
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject("benchmark")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
+                .signWith(buildSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims extractClaimsUncached() {
+        return Jwts.parserBuilder()
+                .setSigningKey(buildSigningKey())
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+    // The way DefaultJwtUtil used to derive the key on every call
+    private Key buildSigningKey() {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+}
@@ -1,8 +1,6 @@
 package movie_master;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import movie_master.api.cache.GenreRegistry;
 import movie_master.api.dto.UserDto;
 import movie_master.api.model.Genre;
 import movie_master.api.model.Movie;
@@ -14,14 +12,11 @@ import movie_master.api.repository.MovieRepository;
 import movie_master.api.repository.UserRepository;
 import movie_master.api.request.RegisterUserRequest;
 import movie_master.api.service.UserService;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import movie_master.api.tmdb.TmdbClient;
+import movie_master.api.tmdb.TmdbMovieImporter;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,12 +29,18 @@ import org.springframework.stereotype.Component;
 public class DataLoader implements ApplicationRunner {
     private final MovieRepository movieRepository;
     private final GenreRepository genreRepository;
+    private final GenreRegistry genreRegistry;
     private final UserService userService;
     private final UserRepository userRepository;
+    private final TmdbClient tmdbClient;
+    private final TmdbMovieImporter tmdbMovieImporter;
 
     @Value("${tmdb.api-key}")
     private String apiKey;
 
+    @Value("${tmdb.import.pages:5}")
+    private int importPages;
+
     @Value("${default-user.name}")
     private String username;
 
@@ -47,12 +48,16 @@ public class DataLoader implements ApplicationRunner {
     private String password;
 
     @Autowired
-    public DataLoader(MovieRepository movieRepository, GenreRepository genreRepository, 
-                      UserService userService, UserRepository userRepository) {
+    public DataLoader(MovieRepository movieRepository, GenreRepository genreRepository, GenreRegistry genreRegistry,
+                      UserService userService, UserRepository userRepository,
+                      TmdbClient tmdbClient, TmdbMovieImporter tmdbMovieImporter) {
         this.movieRepository = movieRepository;
         this.genreRepository = genreRepository;
+        this.genreRegistry = genreRegistry;
         this.userService = userService;
         this.userRepository = userRepository;
+        this.tmdbClient = tmdbClient;
+        this.tmdbMovieImporter = tmdbMovieImporter;
     }
 
     public void run(ApplicationArguments args) {
@@ -63,9 +68,10 @@ public class DataLoader implements ApplicationRunner {
             }
             AddGenres();
         }
+        // Load the genres into memory, the movie import looks them up from there
+        genreRegistry.refresh();
 
-        List<Movie> movies = movieRepository.findAll();
-        if (movies.isEmpty()) {
+        if (movieRepository.count() == 0) {
             if (apiKey.isEmpty()) {
                 throw new IllegalArgumentException("Add TMDB_API_KEY to your env variables");
             }
@@ -84,82 +90,16 @@ public class DataLoader implements ApplicationRunner {
         }
     }
 
-    public void AddMovies() {OkHttpClient client = new OkHttpClient();
-        ObjectMapper objectMapper = new ObjectMapper();
-
-        for(int i = 1; i <= 5; i++) {
-        // Collecting movies from the movie database api
-        Request request = new Request.Builder()
-                .url("https://api.themoviedb.org/3/movie/top_rated?language=en-US&page="+i)
-                .get()
-                .addHeader("accept", "application/json")
-                .addHeader("Authorization", "Bearer %s".formatted(apiKey))
-                .build();
-
-        try (Response response = client.newCall(request).execute()) {
-            assert response.body() != null;
-
-            // Iterating over the movies and adding them to the database
-            JsonNode arrayNode = objectMapper.readTree(response.body().string()).get("results");
-            for (JsonNode node : arrayNode) {
-                Movie movie = objectMapper.treeToValue(node, Movie.class);
-                movie.setPosterPath("https://image.tmdb.org/t/p/original%s".formatted(movie.getPosterPath()));
-
-                // Retrieve the array of genre id's
-                JsonNode idsNode = node.get("genre_ids");
-
-                // Extract the array as a list of longs
-                List<Long> ids = new ArrayList<>();
-                if (idsNode != null && idsNode.isArray()) {
-                    for (JsonNode numberNode : idsNode) {
-                        ids.add(numberNode.asLong());
-                    }
-                }
-                
-                // Iterate over the id's, assign genre objects to this movie
-                ids.forEach(id -> {
-                    Optional<Genre> genreOpt = genreRepository.findById(id);
-                    if (genreOpt.isEmpty()) {
-                        // Change this later to an exception
-                        System.err.println("Error: could not find genre!");
-                    }
-                    Genre genre = genreOpt.get();
-                    movie.addGenre(genre);
-                });
-
-                // Save the movie
-                movieRepository.save(movie);
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        }
-
+    public void AddMovies() {
+        tmdbMovieImporter.importTopRated(importPages);
     }
 
     /**
      * Adds genres to the database
      */
     public void AddGenres() {
-        OkHttpClient client = new OkHttpClient();
-        ObjectMapper objectMapper = new ObjectMapper();
-
-        Request request = new Request.Builder()
-        .url("https://api.themoviedb.org/3/genre/movie/list?language=en")
-        .get()
-        .addHeader("accept", "application/json")
-        .addHeader("Authorization", "Bearer %s".formatted(apiKey))
-        .build();
-
-        try (Response response = client.newCall(request).execute()) {
-            assert response.body() != null;
-
-            // Iterating over the movies and adding them to the database
-            JsonNode arrayNode = objectMapper.readTree(response.body().string()).get("genres");
-            for (JsonNode node : arrayNode) {
-                Genre genre = objectMapper.treeToValue(node, Genre.class);
-                genreRepository.save(genre);
-            }
+        try {
+            tmdbClient.stream("/genre/movie/list?language=en", "genres", Genre.class, genreRepository::save);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,88 @@
+package movie_master.api.cache;
+
+import movie_master.api.model.Genre;
+import movie_master.api.repository.GenreRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory registry of all genres, indexed by id and by name
+ * Genres are loaded from TMDB once and hardly ever change, so they are read from the database
+ * on first use and on refresh only. Every refresh replaces the whole immutable snapshot, so
+ * readers never see a half-loaded registry
+ */
+@Component
+public class GenreRegistry {
+    private final GenreRepository genreRepository;
+    private volatile Snapshot snapshot;
+
+    public GenreRegistry(GenreRepository genreRepository) {
+        this.genreRepository = genreRepository;
+    }
+
+    /**
+     * Immutable view of the genres at the time of loading
+     *
+     * @param genres all genres, sorted by id
+     * @param byId   genres by id
+     * @param byName genres by lowercase name
+     * @param etag   entity tag that changes whenever the genres change
+     */
+    private record Snapshot(List<Genre> genres, Map<Long, Genre> byId, Map<String, Genre> byName, String etag) {}
+
+    // Reloads the genres from the database, call after the genres have been changed
+    public synchronized void refresh() {
+        List<Genre> genres = genreRepository.findAll().stream()
+                .sorted(Comparator.comparingLong(Genre::getId))
+                .toList();
+
+        Map<Long, Genre> byId = genres.stream()
+                .collect(Collectors.toUnmodifiableMap(Genre::getId, Function.identity()));
+        Map<String, Genre> byName = genres.stream()
+                .collect(Collectors.toUnmodifiableMap(genre -> genre.getName().toLowerCase(), Function.identity(),
+                        (first, second) -> first));
+
+        String content = genres.stream()
+                .map(genre -> genre.getId() + "=" + genre.getName())
+                .collect(Collectors.joining(","));
+        String etag = "\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        snapshot = new Snapshot(genres, byId, byName, etag);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // All genres, sorted by id
+    public List<Genre> getAll() {
+        return snapshot().genres();
+    }
+
+    public Optional<Genre> findById(long id) {
+        return Optional.ofNullable(snapshot().byId().get(id));
+    }
+
+    // Genre names are matched case-insensitively
+    public Optional<Genre> findByName(String name) {
+        return Optional.ofNullable(snapshot().byName().get(name.toLowerCase()));
+    }
+
+    // Quoted entity tag of the current genres, for conditional requests
+    public String getETag() {
+        return snapshot().etag();
+    }
+}
@@ -0,0 +1,94 @@
+package movie_master.api.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import movie_master.api.dto.MovieDetailDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited cache of movie details by id, each with a strong entity tag of its content
+ * Movies are read far more often than they change, and mostly only their average rating changes
+ * Entries are evicted whenever a movie or its rating is changed, the time to live only bounds how
+ * long an entry can be stale when a change bypasses the services
+ * Hits, misses and evictions are reported as cache metrics under /actuator/metrics
+ */
+@Component
+public class MovieDetailCache {
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, CachedMovie> moviesById;
+
+    /**
+     * A movie as it was when it was cached
+     *
+     * @param movie the details of the movie
+     * @param eTag  quoted entity tag, a hash of the movie as json
+     */
+    public record CachedMovie(MovieDetailDto movie, String eTag) {}
+
+    public MovieDetailCache(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${movie-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${movie-cache.time-to-live:PT10M}") Duration timeToLive) {
+        this.objectMapper = objectMapper;
+        this.moviesById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, moviesById, "moviesById");
+    }
+
+    /**
+     * Retrieves a movie, the loader is only called when it is not cached yet
+     * Movies that are not found are not cached
+     */
+    public Optional<CachedMovie> get(long movieId, Function<Long, Optional<MovieDetailDto>> loader) {
+        CachedMovie cached = moviesById.get(movieId, id -> loader.apply(id).map(this::toCachedMovie).orElse(null));
+        return Optional.ofNullable(cached);
+    }
+
+    /**
+     * Removes a movie after it has been changed or deleted
+     * Inside a transaction it is removed again after the commit, so a read in between can't cache
+     * the movie as it was before the change
+     */
+    public void evict(long movieId) {
+        moviesById.invalidate(movieId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    moviesById.invalidate(movieId);
+                }
+            });
+        }
+    }
+
+    // Removes all movies, for after changes to many movies at once
+    public void invalidateAll() {
+        moviesById.invalidateAll();
+    }
+
+    private CachedMovie toCachedMovie(MovieDetailDto movie) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(movie);
+            return new CachedMovie(movie, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
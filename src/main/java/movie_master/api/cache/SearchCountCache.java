@@ -0,0 +1,59 @@
+package movie_master.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Short-lived cache of the amount of movies matching a search
+ * Paging through a search only counts the matches on the first page, queries that only differ in
+ * case or spacing share their count. All counts are dropped whenever a movie is added or removed,
+ * the time to live only bounds how long a count can be stale when the movies change otherwise
+ */
+@Component
+public class SearchCountCache {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Cache<String, Long> countsByQuery;
+
+    public SearchCountCache(MeterRegistry meterRegistry,
+                            @Value("${search-count-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${search-count-cache.time-to-live:PT1M}") Duration timeToLive) {
+        this.countsByQuery = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, countsByQuery, "searchCountsByQuery");
+    }
+
+    /**
+     * Retrieves the amount of matches of a search, the counter is only called when it is not cached yet
+     *
+     * @param query   the searched text
+     * @param fuzzy   whether the search allows typos, fuzzy and exact counts are cached separately
+     * @param counter counts the matches
+     */
+    public long get(String query, boolean fuzzy, LongSupplier counter) {
+        String key = (fuzzy ? "~" : "=") + normalize(query);
+        return countsByQuery.get(key, ignored -> counter.getAsLong());
+    }
+
+    // Drops all counts, for when movies have been added or removed
+    public void invalidateAll() {
+        countsByQuery.invalidateAll();
+    }
+
+    static String normalize(String query) {
+        return query == null ? "" : WHITESPACE.matcher(query.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+}
@@ -0,0 +1,121 @@
+package movie_master.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import movie_master.api.dto.UserDto;
+import movie_master.api.model.detail.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-limited cache in front of the user lookups by username and email
+ * Login, refresh and the jwt filter all load the details of a user by username, often many times in a row
+ * Users are cached by id, usernames and emails only point to the id. That way all the entries of a user are
+ * evicted at once when the user is changed, and a username or email that no longer matches the cached user
+ * counts as a miss. The time to live only bounds how long an entry can be stale when a change bypasses
+ * the user service
+ * Hits, misses and evictions are reported as cache metrics under /actuator/metrics
+ */
+@Component
+public class UserCache {
+    private final Cache<Long, CustomUserDetails> userDetailsById;
+    private final Cache<Long, UserDto> usersById;
+    private final Cache<String, Long> userIdsByUsername;
+    private final Cache<String, Long> userIdsByEmail;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user-cache.time-to-live:PT5M}") Duration timeToLive) {
+        this.userDetailsById = buildCache(maximumSize, timeToLive);
+        this.usersById = buildCache(maximumSize, timeToLive);
+        this.userIdsByUsername = buildCache(maximumSize, timeToLive);
+        this.userIdsByEmail = buildCache(maximumSize, timeToLive);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsById, "userDetailsById");
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "usersById");
+    }
+
+    private static <K, V> Cache<K, V> buildCache(long maximumSize, Duration timeToLive) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retrieves the details of a user, the loader is only called when they are not cached yet
+     * Exceptions thrown by the loader are passed on and nothing is cached
+     */
+    public CustomUserDetails getUserDetails(String username, Function<String, CustomUserDetails> loader) {
+        Long userId = userIdsByUsername.getIfPresent(username);
+        CustomUserDetails userDetails = userId == null ? null : userDetailsById.getIfPresent(userId);
+
+        if (userDetails == null || !username.equals(userDetails.getUsername())) {
+            userDetails = loader.apply(username);
+            if (userDetails != null) {
+                userDetailsById.put(userDetails.getUserId(), userDetails);
+                userIdsByUsername.put(username, userDetails.getUserId());
+            }
+        }
+        return userDetails;
+    }
+
+    // Retrieve a user by username, the supplier is only called when the user is not cached yet
+    public UserDto getUserByUsername(String username, Supplier<UserDto> loader) {
+        return getOrLoad(userIdsByUsername, username, UserDto::username, loader);
+    }
+
+    // Retrieve a user by email, the supplier is only called when the user is not cached yet
+    public UserDto getUserByEmail(String email, Supplier<UserDto> loader) {
+        return getOrLoad(userIdsByEmail, email, UserDto::email, loader);
+    }
+
+    private UserDto getOrLoad(Cache<String, Long> userIds, String key, Function<UserDto, String> keyOf,
+                              Supplier<UserDto> loader) {
+        Long userId = userIds.getIfPresent(key);
+        UserDto user = userId == null ? null : usersById.getIfPresent(userId);
+
+        if (user == null || !key.equals(keyOf.apply(user))) {
+            user = loader.get();
+            if (user != null) {
+                usersById.put(user.id(), user);
+                userIds.put(key, user.id());
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Removes all entries of a user
+     * Entries under an old username or email are removed as well, as they point to the same id
+     * Inside a transaction they are removed again after the commit, so a lookup in between can't cache
+     * the user as it was before the change
+     *
+     * @param userId id of the user that has been changed or deleted
+     */
+    public void evict(Long userId) {
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long userId) {
+        userDetailsById.invalidate(userId);
+        usersById.invalidate(userId);
+    }
+}
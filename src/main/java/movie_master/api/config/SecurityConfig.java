@@ -1,6 +1,8 @@
 package movie_master.api.config;
 
+import jakarta.servlet.DispatcherType;
 import movie_master.api.jwt.JwtFilter;
+import movie_master.api.pagination.KeysetCursor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -43,14 +45,19 @@ public class SecurityConfig {
                 .cors(configurer -> configurer.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
+                        // The request was authorized when it started, its async dispatch (e.g. when an event
+                        // stream ends) carries no jwt and must not be rejected on a response that is already sent
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/reviews/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/users").permitAll()
                         .requestMatchers("/users/password-reset").permitAll()
                         .requestMatchers(HttpMethod.GET, "/movies/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/movies").hasRole("MOD")
+                        .requestMatchers(HttpMethod.POST, "/movies/genres/refresh").hasRole("MOD")
                         .requestMatchers(HttpMethod.PUT, "/users/{userId}/role").hasRole("MOD")
                         .requestMatchers(HttpMethod.PUT, "/users/{userId}/banstatus").hasRole("MOD")
+                        .requestMatchers("/actuator/**").hasRole("MOD")
                         .anyRequest().authenticated())
                 .sessionManagement((session) -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)  // Add the JWT filter
@@ -67,6 +74,7 @@ public class SecurityConfig {
         configuration.setAllowedHeaders(List.of(HttpHeaders.ACCEPT, HttpHeaders.CONTENT_TYPE, HttpHeaders.AUTHORIZATION));
         configuration.setAllowedMethods(List.of(HttpMethod.GET.name(), HttpMethod.POST.name(),
                 HttpMethod.PUT.name(), HttpMethod.DELETE.name(), HttpMethod.OPTIONS.name()));
+        configuration.setExposedHeaders(List.of(KeysetCursor.NEXT_CURSOR_HEADER, HttpHeaders.ETAG));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -0,0 +1,23 @@
+package movie_master.api.config;
+
+import movie_master.api.jwt.JwtClaimsArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * The class that configures Spring MVC
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Allows controllers to receive the verified claims of the jwt as a parameter
+     */
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new JwtClaimsArgumentResolver());
+    }
+}
@@ -1,11 +1,14 @@
 package movie_master.api.controller;
 
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.validation.Valid;
 import movie_master.api.exception.BannedAccountException;
+import movie_master.api.jwt.JwtClaims;
 import movie_master.api.jwt.JwtUtil;
+import movie_master.api.jwt.TokenVersionCache;
 import movie_master.api.model.detail.CustomUserDetails;
 import movie_master.api.model.role.Role;
 import movie_master.api.request.LoginRequest;
@@ -34,11 +37,14 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionCache tokenVersionCache;
 
-    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                          TokenVersionCache tokenVersionCache) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionCache = tokenVersionCache;
     }
 
     @PostMapping("/login")
@@ -62,6 +68,7 @@ public class AuthController {
             claims.put("userId", userId);
             claims.put("role", role);
             claims.put("profileUrl", profilePicture);
+            claims.put("tokenVersion", userDetails.getTokenVersion());
 
             String jwt = jwtUtil.generateJwt(claims, username);
             String refreshJwt = jwtUtil.generateRefreshJwt(claims, username);
@@ -78,14 +85,21 @@ public class AuthController {
 
     /**
      * Generate a new JWT
+     * The refresh token has to carry the current token version of the user, so refresh tokens issued before
+     * a password reset, role change or ban can't be used to get a new jwt
      * @param refreshJwtRequest - the refresh token
      * @return - newly generated jwt
      */
     @PostMapping("/refresh")
     public ResponseEntity<Object> refresh(@Valid @RequestBody RefreshJwtRequest refreshJwtRequest) {
         try {
+            JwtClaims refreshClaims = jwtUtil.parseJwt(refreshJwtRequest.jwt());
             CustomUserDetails userDetails = (CustomUserDetails) userDetailsService
-                    .loadUserByUsername(jwtUtil.getSubject(refreshJwtRequest.jwt()));
+                    .loadUserByUsername(refreshClaims.username());
+
+            if (userDetails.isBanned()) {
+                throw new BannedAccountException();
+            }
 
             // get the details of the user from the database
             Long userId = userDetails.getUserId();
@@ -93,8 +107,9 @@ public class AuthController {
             Role role = userDetails.getRole();
             String profilePicture = userDetails.getProfilePicture();
 
-            // validate the claims and if the token has not expired
-            if (!jwtUtil.isJwtValid(refreshJwtRequest.jwt(), userId, username, role)) {
+            // validate the claims, the token version and if the token has not expired
+            if (!jwtUtil.isJwtValid(refreshClaims, userId, username, role)
+                    || !tokenVersionCache.isCurrent(userId, refreshClaims.tokenVersion())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
             }
 
@@ -103,13 +118,17 @@ public class AuthController {
             claims.put("userId", userId);
             claims.put("role", role);
             claims.put("profileUrl", profilePicture);
+            claims.put("tokenVersion", refreshClaims.tokenVersion());
 
             String jwt = jwtUtil.generateJwt(claims, username);
 
             return ResponseEntity.ok().body(Map.of("accessToken", jwt));
         }
-        catch (SignatureException | MalformedJwtException | UnsupportedJwtException e) {
+        catch (BannedAccountException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+        catch (SignatureException | MalformedJwtException | UnsupportedJwtException | ExpiredJwtException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Refresh token expired or invalid");
         }
     }
-}
\ No newline at end of file
+}
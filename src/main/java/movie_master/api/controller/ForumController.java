@@ -3,17 +3,23 @@ package movie_master.api.controller;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import movie_master.api.dto.Forum.CommentDto;
+import movie_master.api.dto.Forum.CommentPageDto;
 import movie_master.api.dto.Forum.TopicDto;
+import movie_master.api.dto.Forum.TopicPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.TopicNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.request.TopicRequest;
-import movie_master.api.jwt.JwtUtil;
+import movie_master.api.request.TopicSort;
+import movie_master.api.jwt.JwtClaims;
 import movie_master.api.service.CommentService;
 import movie_master.api.service.TopicService;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
 import java.util.List;
@@ -24,18 +30,53 @@ public class ForumController {
 
     private final TopicService topicService;
     private final CommentService commentService;
-    private final JwtUtil jwtUtil;
 
-    public ForumController(TopicService topicService, CommentService commentService, JwtUtil jwtUtil) {
+    public ForumController(TopicService topicService, CommentService commentService) {
         this.topicService = topicService;
         this.commentService = commentService;
-        this.jwtUtil = jwtUtil;
     }
 
+    /**
+     * Gets a page of topics. The cursor of the next page is returned in the
+     * X-Next-Cursor header, which is left out on the last page.
+     *
+     * @param sort   'activity' for the most recently commented topics first, 'created' for the newest first
+     * @param cursor cursor of the previous page, left out for the first page
+     * @param size   maximum amount of topics on the page
+     * @return the topics on the page
+     */
     @GetMapping("/topics")
-    public ResponseEntity<List<TopicDto>> getAllTopics() {
-        List<TopicDto> topics = topicService.getAllTopics();
-        return ResponseEntity.ok(topics);
+    public ResponseEntity<Object> getTopics(@RequestParam(defaultValue = "activity") String sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int size) {
+        TopicSort topicSort;
+        try {
+            topicSort = TopicSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown sort '%s'".formatted(sort));
+        }
+
+        try {
+            TopicPageDto page = topicService.getTopics(topicSort, cursor, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(KeysetCursor.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the topics with the most recent activity, where every comment counts for less as it gets older
+     *
+     * @param limit maximum amount of topics
+     * @return the hottest topics, hottest first
+     */
+    @GetMapping("/topics/hot")
+    public ResponseEntity<List<TopicDto>> getHotTopics(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(topicService.getHotTopics(limit));
     }
 
     @GetMapping("/topics/{topicId}")
@@ -50,24 +91,61 @@ public class ForumController {
         }
     }
 
+    /**
+     * Gets a page of the comments of a topic, oldest first. The cursor of the next page is returned
+     * in the X-Next-Cursor header, which is left out on the last page.
+     *
+     * @param topicId id of the topic
+     * @param cursor  cursor of the previous page, left out for the first page
+     * @param size    maximum amount of comments on the page
+     * @return the comments on the page
+     */
     @GetMapping("/topics/{topicId}/comments")
-    public ResponseEntity<Object> getCommentsForTopic(@PathVariable Long topicId) {
+    public ResponseEntity<Object> getCommentsForTopic(@PathVariable Long topicId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int size) {
         try {
-            List<CommentDto> comments = commentService.getCommentsForTopic(topicId);
-            return ResponseEntity.ok(comments);
+            CommentPageDto page = commentService.getCommentsForTopic(topicId, cursor, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(KeysetCursor.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (TopicNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
     }
 
+    /**
+     * Follows a topic. New comments are pushed as server-sent events named 'comment',
+     * so clients don't have to poll the comments
+     * Browsers can't send the Authorization header with an EventSource, they pass the jwt in the
+     * access_token query parameter instead: new EventSource('/forum/topics/1/live?access_token=' + jwt)
+     *
+     * @param topicId id of the topic
+     * @return the event stream, or 404 when the topic doesn't exist
+     */
+    @GetMapping(value = "/topics/{topicId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> followTopic(@PathVariable Long topicId) {
+        try {
+            return ResponseEntity.ok(commentService.subscribe(topicId));
+        } catch (TopicNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping("/topics")
     public ResponseEntity<Object> createTopic(
             @Valid @RequestBody TopicRequest request,
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt,
+            JwtClaims jwtClaims,
             HttpServletRequest httpServletRequest
     ) {
         try {
-            Long userId = jwtUtil.getUserId(jwt.replace("Bearer ", ""));
+            Long userId = jwtClaims.userId();
 
             TopicDto topicDto = topicService.createTopic(request.title(), request.description(), userId);
             return ResponseEntity.created(URI.create(httpServletRequest.getRequestURI())).body(topicDto);
@@ -82,11 +160,11 @@ public class ForumController {
     public ResponseEntity<Object> createComment(
             @PathVariable Long topicId,
             @Valid @RequestBody String content,
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt,
+            JwtClaims jwtClaims,
             HttpServletRequest httpServletRequest
     ) {
         try {
-            Long userId = jwtUtil.getUserId(jwt.replace("Bearer ", ""));
+            Long userId = jwtClaims.userId();
 
             CommentDto commentDto = commentService.createComment(content, topicId, userId);
             return ResponseEntity.created(URI.create(httpServletRequest.getRequestURI())).body(commentDto);
@@ -7,12 +7,11 @@ import movie_master.api.exception.FriendshipAlreadyExistsException;
 import movie_master.api.exception.FriendshipNotFoundException;
 import movie_master.api.exception.UserCannotFriendThemself;
 import movie_master.api.exception.UserNotFoundException;
-import movie_master.api.jwt.JwtUtil;
+import movie_master.api.jwt.JwtClaims;
 import movie_master.api.model.friendship.FriendshipStatus;
 import movie_master.api.request.FriendshipRequest;
 import movie_master.api.service.DefaultFriendshipService;
 import movie_master.api.service.FriendshipService;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,18 +23,16 @@ import java.util.List;
 @RequestMapping("/friends")
 public class FriendshipController {
     private final FriendshipService friendshipService;
-    private final JwtUtil jwtUtil;
 
-    public FriendshipController(DefaultFriendshipService friendshipService, JwtUtil jwtUtil) {
+    public FriendshipController(DefaultFriendshipService friendshipService) {
         this.friendshipService = friendshipService;
-        this.jwtUtil = jwtUtil;
     }
 
     @PostMapping
     public ResponseEntity<Object> addFriend(@Valid @RequestBody FriendshipRequest request,
-                                            @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt, HttpServletRequest httpServletRequest) {
+                                            JwtClaims jwtClaims, HttpServletRequest httpServletRequest) {
         try {
-            Long userId = jwtUtil.getUserId(jwt.replace("Bearer ", ""));
+            Long userId = jwtClaims.userId();
 
             FriendshipDto friendshipDto = friendshipService.addFriend(userId, request.username());
             return ResponseEntity.created(URI.create(httpServletRequest.getRequestURI())).body(friendshipDto);
@@ -48,9 +45,9 @@ public class FriendshipController {
 
     @PutMapping
     public ResponseEntity<Object> updateFriendshipStatus(@Valid @RequestBody FriendshipRequest request,
-                                                         @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt) {
+                                                         JwtClaims jwtClaims) {
         try {
-            Long userId = jwtUtil.getUserId(jwt.replace("Bearer ", ""));
+            Long userId = jwtClaims.userId();
             FriendshipStatus status;
 
             if (request.status() != null) {
@@ -74,8 +71,8 @@ public class FriendshipController {
 
     @GetMapping
     public ResponseEntity<Object> getFriendsByStatus(@RequestParam FriendshipStatus status,
-                                                     @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt) {
-        Long userId = jwtUtil.getUserId(jwt.replace("Bearer ", ""));
+                                                     JwtClaims jwtClaims) {
+        Long userId = jwtClaims.userId();
 
         List<FriendshipDto> friends = friendshipService.getFriendsByStatus(userId, status);
         return ResponseEntity.ok(friends);
@@ -83,9 +80,9 @@ public class FriendshipController {
 
     @DeleteMapping
     public ResponseEntity<Object> deleteFriend(@Valid @RequestBody FriendshipRequest request,
-                                               @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt) {
+                                               JwtClaims jwtClaims) {
         try {
-            Long userId = jwtUtil.getUserId(jwt.replace("Bearer ", ""));
+            Long userId = jwtClaims.userId();
 
             friendshipService.deleteFriend(userId, request.username());
             return ResponseEntity.noContent().build();
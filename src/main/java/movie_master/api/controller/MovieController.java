@@ -1,19 +1,32 @@
 package movie_master.api.controller;
 
+import movie_master.api.cache.MovieDetailCache.CachedMovie;
+import movie_master.api.dto.MovieCardDto;
+import movie_master.api.dto.MovieDetailDto;
+import movie_master.api.dto.MoviePageDto;
+import movie_master.api.dto.MovieSearchPageDto;
+import movie_master.api.dto.MovieSuggestionDto;
 import movie_master.api.exception.GenreNotFoundException;
 import movie_master.api.exception.GenresNotLoadedException;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.model.Genre;
 import movie_master.api.model.Movie;
+import movie_master.api.pagination.KeysetCursor;
+import movie_master.api.request.GenreMatch;
+import movie_master.api.request.MovieSort;
 import movie_master.api.service.MovieService;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -21,6 +34,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RestController
 @RequestMapping("/movies")
 public class MovieController {
+    // The average rating of a movie can change at any moment, so clients revalidate after a minute
+    private static final CacheControl MOVIE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+    private static final CacheControl GENRES_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(10)).cachePublic();
     private final MovieService movieService;
 
     public MovieController(MovieService movieService) {
@@ -35,10 +51,10 @@ public class MovieController {
      * @return List of movies
      */
     @GetMapping
-    public ResponseEntity<List<Movie>> getMoviesByTitle(@RequestParam String title,
+    public ResponseEntity<List<MovieCardDto>> getMoviesByTitle(@RequestParam String title,
                                     @RequestParam(required = false) Integer page) {
         page = page == null ? 0 : page;
-        List<Movie> movies = movieService.findByTitleContaining(title, page);
+        List<MovieCardDto> movies = movieService.findByTitleContaining(title, page);
 
         if (movies.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -47,6 +63,41 @@ public class MovieController {
         return ResponseEntity.ok(movies);
     }
 
+    /**
+     * Searches movies and returns a page of them together with the total amount of matches,
+     * so a single request is enough to show both. When nothing matches exactly, movies are
+     * searched allowing typos.
+     *
+     * @param title  text to search for in the title, description and language
+     * @param cursor cursor of the previous page, leave out for the first page
+     * @param size   maximum amount of movies on the page
+     * @return the movies, the total amount of matches and the cursor of the next page
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchMovies(@RequestParam String title,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "10") int size) {
+        try {
+            MovieSearchPageDto page = movieService.search(title, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Suggests movies while a title is being typed
+     *
+     * @param q     the typed start of a word in the title
+     * @param limit maximum amount of suggestions
+     * @return the best rated matching movies, best first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<MovieSuggestionDto>> suggestMovies(@RequestParam String q,
+                                    @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(movieService.suggest(q, limit));
+    }
+
     /**
      * Saves a movie
      * @param movie movie to save
@@ -69,47 +120,100 @@ public class MovieController {
 
     /**
      * Gets a movie by the given ID
+     * Responses carry an entity tag, a request with a matching If-None-Match header gets 304 not modified
      *
      * @param id ID of the movie
+     * @param ifNoneMatch entity tag of the movie the client has already
      * @return a movie object
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Movie> getMovie(@PathVariable Long id) {
-        Optional<Movie> movie = movieService.findById(id);
-        return movie.map(value ->
-                new ResponseEntity<>(value, HttpStatus.OK)).orElseGet(() ->
-                new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<MovieDetailDto> getMovie(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<CachedMovie> movie = movieService.findCachedById(id);
+        if (movie.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        String etag = movie.get().eTag();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(MOVIE_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(MOVIE_CACHE_CONTROL).body(movie.get().movie());
     }
 
     /**
-     * Retrieve a list of movies based on a
-     *  given list of genres.
+     * Retrieve a page of movies based on a
+     *  given set of genres. The cursor of the next page is returned
+     *  in the X-Next-Cursor header, which is left out on the last page.
      * 
-     * @param genres A list of genres, e.g. 'thriller' or 'western'
+     * @param genres A set of genres, e.g. 'thriller' or 'western'
+     * @param match 'any' for movies with at least one of the genres, 'all' for movies with every genre
+     * @param sort order of the movies: title, rating or release_date
+     * @param cursor cursor of the previous page, leave out for the first page
+     * @param size maximum amount of movies on the page
      * @return A list of movies that fall under these genres
      */
     @GetMapping("/genrefilter")
-    public ResponseEntity<Object> getMoviesByGenre(@RequestParam List<String> genres) {
+    public ResponseEntity<Object> getMoviesByGenre(@RequestParam Set<String> genres,
+                                                   @RequestParam(defaultValue = "any") String match,
+                                                   @RequestParam(defaultValue = "title") String sort,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "10") int size) {
+        GenreMatch genreMatch;
+        MovieSort movieSort;
+        try {
+            genreMatch = GenreMatch.valueOf(match.toUpperCase());
+            movieSort = MovieSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown match '%s' or sort '%s'".formatted(match, sort));
+        }
+
         try {
-            List<Movie> movies = new ArrayList<>();
-            for (int i = 0; i < genres.size(); i++) {
-                movies.addAll(movieService.findByGenre(genres.get(i)));
+            MoviePageDto page = movieService.findByGenres(genres, genreMatch, movieSort, cursor, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(KeysetCursor.NEXT_CURSOR_HEADER, page.nextCursor());
             }
-            return ResponseEntity.ok(movies);
+            return response.body(page.items());
         } catch (GenreNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Gets all genres. They are served from memory with an ETag, so clients that already
+     * have the current genres get a 304 Not Modified without a body.
+     *
+     * @param ifNoneMatch ETag of the genres the client already has
+     * @return A list of all genres
+     */
     @GetMapping("/genres")
-    public ResponseEntity<Object> getMovieGenres() {
+    public ResponseEntity<Object> getMovieGenres(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             List<Genre> genres = movieService.findAllGenres();
-            return ResponseEntity.ok(genres);
+            String etag = movieService.getGenresETag();
+            if (etag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(GENRES_CACHE_CONTROL).build();
+            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(GENRES_CACHE_CONTROL).body(genres);
         } catch (GenresNotLoadedException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         }
     }
+
+    /**
+     * Reloads the genres into memory, for after they have been changed in the database
+     *
+     * @return 204 no content
+     */
+    @PostMapping("/genres/refresh")
+    public ResponseEntity<Object> refreshGenres() {
+        movieService.refreshGenres();
+        return ResponseEntity.noContent().build();
+    }
     
     
     /**
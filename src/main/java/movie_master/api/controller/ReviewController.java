@@ -2,9 +2,12 @@ package movie_master.api.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import movie_master.api.dto.ReviewDto;
+import movie_master.api.dto.ReviewPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.MovieNotFoundException;
 import movie_master.api.exception.MovieNotInWatchlistException;
 import movie_master.api.exception.UserNotFoundException;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.request.PostReviewRequest;
 import movie_master.api.service.ReviewService;
 import org.springframework.http.ResponseEntity;
@@ -23,10 +26,23 @@ public class ReviewController {
         this.service = service;
     }
 
+    /**
+     * Gets a page of the latest reviews. The cursor of the next page is returned in the
+     * X-Next-Cursor header, which is left out on the last page.
+     * Without parameters only the first 20 reviews are returned, not all of them
+     *
+     * @param cursor cursor of the previous page, left out for the first page
+     * @param size   maximum amount of reviews on the page
+     * @return the reviews on the page, newest first
+     */
     @GetMapping
-    public ResponseEntity<List<ReviewDto>> getAllReviews() {
-        List<ReviewDto> allReviews = service.findAll();
-        return ResponseEntity.ok(allReviews);
+    public ResponseEntity<Object> getAllReviews(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int size) {
+        try {
+            return pageResponse(service.findLatest(cursor, size));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{amount}")
@@ -35,10 +51,24 @@ public class ReviewController {
         return ResponseEntity.ok(foundReviews);
     }
 
+    /**
+     * Gets a page of the latest reviews of a movie. The cursor of the next page is returned
+     * in the X-Next-Cursor header, which is left out on the last page.
+     *
+     * @param movieId id of the movie
+     * @param cursor  cursor of the previous page, left out for the first page
+     * @param size    maximum amount of reviews on the page
+     * @return the reviews on the page, newest first
+     */
     @GetMapping("/movie")
-    public ResponseEntity<List<ReviewDto>> getReviewsByMovie(@RequestParam long movieId) {
-        List<ReviewDto> foundReviews = service.findByMovie(movieId);
-        return ResponseEntity.ok(foundReviews);
+    public ResponseEntity<Object> getReviewsByMovie(@RequestParam long movieId,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        try {
+            return pageResponse(service.findByMovie(movieId, cursor, size));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping
@@ -63,4 +93,12 @@ public class ReviewController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    private ResponseEntity<Object> pageResponse(ReviewPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(KeysetCursor.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
 }
@@ -4,8 +4,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import movie_master.api.dto.UserDto;
 import movie_master.api.dto.UserMovie.UserMovieDto;
+import movie_master.api.dto.UserMovie.WatchlistPageDto;
 import movie_master.api.exception.*;
+import movie_master.api.jwt.JwtClaims;
 import movie_master.api.jwt.JwtUtil;
+import movie_master.api.jwt.TokenVersionCache;
 import movie_master.api.model.User;
 import movie_master.api.model.UserMovie;
 import movie_master.api.model.role.Role;
@@ -13,8 +16,9 @@ import movie_master.api.request.PasswordResetRequest;
 import movie_master.api.request.RegisterUserRequest;
 import movie_master.api.request.ResetPasswordRequest;
 import movie_master.api.request.UpdateUserRequest;
+import movie_master.api.request.WatchlistPageRequest;
+import movie_master.api.request.WatchlistSort;
 import movie_master.api.service.UserService;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -37,10 +41,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 public class UserController {
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final TokenVersionCache tokenVersionCache;
 
-    public UserController(UserService userService, JwtUtil jwtUtil) {
+    public UserController(UserService userService, JwtUtil jwtUtil, TokenVersionCache tokenVersionCache) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.tokenVersionCache = tokenVersionCache;
     }
 
     /**
@@ -91,18 +97,19 @@ public class UserController {
     /**
      * Change the role of the given user
      *
-     * @param newRole role to give the user
-     * @param userId  ID of the user to give the role to
+     * @param newRole   role to give the user
+     * @param userId    ID of the user to give the role to
+     * @param jwtClaims verified claims of the user performing the request
      * @return updated user
      */
     @PutMapping("/{userId}/role")
     public ResponseEntity<Object> updateUserRole(@RequestBody String newRole,
                                                  @PathVariable Long userId,
-                                                 @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt) {
+                                                 JwtClaims jwtClaims) {
         try {
             UserDto user = userService.updateUserRole(userId,
                     newRole,
-                    jwtUtil.getRole(jwt.replace("Bearer ", "")));
+                    jwtClaims.role());
             return ResponseEntity.ok().body(generateTokens(user.id(), user.username(), user.role(), user.profile_picture()));
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
@@ -131,18 +138,18 @@ public class UserController {
      *
      * @param userId            ID of the user to update
      * @param updateUserRequest object with the values to update
+     * @param jwtClaims         verified claims of the user performing the request
      * @return the updated user
      */
     @PutMapping("/{userId}")
     public ResponseEntity<Object> updateUser(@PathVariable Long userId,
                                              @RequestBody UpdateUserRequest updateUserRequest,
-                                             @RequestHeader(HttpHeaders.AUTHORIZATION) String jwt) {
+                                             JwtClaims jwtClaims) {
         try {
-            jwt = jwt.replace("Bearer ", "");
             UserDto user = userService.updateUser(userId,
                     updateUserRequest,
-                    jwtUtil.getUserId(jwt),
-                    jwtUtil.getRole(jwt));
+                    jwtClaims.userId(),
+                    jwtClaims.role());
             return ResponseEntity.ok(generateTokens(user.id(), user.username(), user.role(), user.profile_picture()));
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -189,6 +196,44 @@ public class UserController {
         }
     }
 
+    /**
+     * Retrieve a page of the watchlist of a given user.
+     *
+     * @param userId    id of the user
+     * @param sort      order of the items: added, title or rating
+     * @param watched   only watched or unwatched items, both when left out
+     * @param genre     only movies of this genre, all genres when left out
+     * @param hasReview only reviewed or unreviewed items, both when left out
+     * @param cursor    'nextCursor' of the previous page, left out for the first page
+     * @param size      maximum amount of items on the page
+     * @return the items on the page and the cursor of the next page
+     */
+    @GetMapping("/{userId}/watchlist/page")
+    public ResponseEntity<Object> getWatchListPage(@PathVariable Long userId,
+                                                   @RequestParam(defaultValue = "added") String sort,
+                                                   @RequestParam(required = false) Boolean watched,
+                                                   @RequestParam(required = false) String genre,
+                                                   @RequestParam(required = false) Boolean hasReview,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        WatchlistSort watchlistSort;
+        try {
+            watchlistSort = WatchlistSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown sort '%s'".formatted(sort));
+        }
+
+        try {
+            WatchlistPageDto page = userService.getWatchListPage(userId,
+                    new WatchlistPageRequest(watchlistSort, watched, genre, hasReview, cursor, size));
+            return ResponseEntity.ok(page);
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Retrieves the watchlist item of a user by the given movie
      *
@@ -358,6 +403,7 @@ public class UserController {
         claims.put("userId", userId);
         claims.put("role", role);
         claims.put("profileUrl", profileUrl);
+        claims.put("tokenVersion", tokenVersionCache.getVersion(userId));
 
         String jwt = jwtUtil.generateJwt(claims, username);
         String refreshJwt = jwtUtil.generateRefreshJwt(claims, username);
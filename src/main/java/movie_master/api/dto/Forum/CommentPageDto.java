@@ -0,0 +1,14 @@
+package movie_master.api.dto.Forum;
+
+import java.util.List;
+
+/**
+ * A page of the comments of a topic
+ *
+ * @param items      the comments on the page, oldest first
+ * @param nextCursor cursor of the next page, null on the last page
+ */
+public record CommentPageDto(
+    List<CommentDto> items,
+    String nextCursor
+) {}
@@ -11,6 +11,8 @@ import java.time.LocalDateTime;
  * @param createdByProfilePicture
  * @param amountComments
  * @param creationDate
+ * @param lastActivityAt time of the latest comment, or the creation date while there are no comments
  */
 public record TopicDto(Long id, String title, String description, String createdByUsername,
-                       String createdByProfilePicture, int amountComments, LocalDateTime creationDate) {}
+                       String createdByProfilePicture, int amountComments, LocalDateTime creationDate,
+                       LocalDateTime lastActivityAt) {}
@@ -0,0 +1,14 @@
+package movie_master.api.dto.Forum;
+
+import java.util.List;
+
+/**
+ * A page of topics
+ *
+ * @param items      the topics on the page
+ * @param nextCursor cursor of the next page, null on the last page
+ */
+public record TopicPageDto(
+    List<TopicDto> items,
+    String nextCursor
+) {}
@@ -0,0 +1,28 @@
+package movie_master.api.dto;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The fields of a movie shown in lists of movies, without the description
+ *
+ * @param genreIds ids of the genres of the movie
+ */
+public record MovieCardDto(
+    long id,
+    String title,
+    String posterPath,
+    Date releaseDate,
+    double tmdbRating,
+    Double mmAvgRating,
+    List<Long> genreIds
+) {
+    // Used by the constructor expressions in the movie repository, the genre ids are added afterwards
+    public MovieCardDto(long id, String title, String posterPath, Date releaseDate, double tmdbRating, Double mmAvgRating) {
+        this(id, title, posterPath, releaseDate, tmdbRating, mmAvgRating, List.of());
+    }
+
+    public MovieCardDto withGenreIds(List<Long> genreIds) {
+        return new MovieCardDto(id, title, posterPath, releaseDate, tmdbRating, mmAvgRating, List.copyOf(genreIds));
+    }
+}
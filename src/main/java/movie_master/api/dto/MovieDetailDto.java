@@ -0,0 +1,32 @@
+package movie_master.api.dto;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * All fields of a single movie shown on its own page
+ *
+ * @param genreIds ids of the genres of the movie
+ */
+public record MovieDetailDto(
+    long id,
+    String title,
+    String description,
+    Date releaseDate,
+    String language,
+    String posterPath,
+    double tmdbRating,
+    Double mmAvgRating,
+    List<Long> genreIds
+) {
+    // Used by the constructor expression in the movie repository, the genre ids are added afterwards
+    public MovieDetailDto(long id, String title, String description, Date releaseDate, String language,
+                          String posterPath, double tmdbRating, Double mmAvgRating) {
+        this(id, title, description, releaseDate, language, posterPath, tmdbRating, mmAvgRating, List.of());
+    }
+
+    public MovieDetailDto withGenreIds(List<Long> genreIds) {
+        return new MovieDetailDto(id, title, description, releaseDate, language, posterPath, tmdbRating,
+                mmAvgRating, List.copyOf(genreIds));
+    }
+}
@@ -0,0 +1,14 @@
+package movie_master.api.dto;
+
+import java.util.List;
+
+/**
+ * A page of movies
+ *
+ * @param items      the movies on the page
+ * @param nextCursor cursor of the next page, null on the last page
+ */
+public record MoviePageDto(
+    List<MovieCardDto> items,
+    String nextCursor
+) {}
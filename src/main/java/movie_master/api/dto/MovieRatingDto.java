@@ -0,0 +1,6 @@
+package movie_master.api.dto;
+
+public record MovieRatingDto(
+    long movieId,
+    double rating
+) {}
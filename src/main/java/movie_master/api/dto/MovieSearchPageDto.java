@@ -0,0 +1,18 @@
+package movie_master.api.dto;
+
+import java.util.List;
+
+/**
+ * A page of a movie search
+ *
+ * @param items      the movies on the page, best match first
+ * @param total      total amount of movies matching the search
+ * @param fuzzy      whether nothing matched exactly and the movies were found allowing typos
+ * @param nextCursor cursor of the next page, null on the last page
+ */
+public record MovieSearchPageDto(
+    List<MovieCardDto> items,
+    long total,
+    boolean fuzzy,
+    String nextCursor
+) {}
@@ -0,0 +1,8 @@
+package movie_master.api.dto;
+
+public record MovieSuggestionDto(
+    long id,
+    String title,
+    String posterPath,
+    double tmdbRating
+) {}
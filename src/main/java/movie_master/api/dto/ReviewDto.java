@@ -1,5 +1,7 @@
 package movie_master.api.dto;
 
+import java.time.LocalDateTime;
+
 public record ReviewDto(
     long id,
     long userId,
@@ -7,5 +9,6 @@ public record ReviewDto(
     String userProfilePicture,
     String movieTitle,
     double rating,
-    String reviewBody
+    String reviewBody,
+    LocalDateTime reviewDate
 ) {}
@@ -0,0 +1,14 @@
+package movie_master.api.dto;
+
+import java.util.List;
+
+/**
+ * A page of reviews
+ *
+ * @param items      the reviews on this page
+ * @param nextCursor cursor to request the next page with, null on the last page
+ */
+public record ReviewPageDto(
+    List<ReviewDto> items,
+    String nextCursor
+) {}
@@ -1,10 +1,10 @@
 package movie_master.api.dto.UserMovie;
 
-import movie_master.api.model.Movie;
+import movie_master.api.dto.MovieCardDto;
 
 public record UserMovieDto(
     long id,
-    Movie movie,
+    MovieCardDto movie,
     boolean watched,
     UserMovieReviewDto review
 ) {}
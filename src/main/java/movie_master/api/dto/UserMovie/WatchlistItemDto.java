@@ -0,0 +1,15 @@
+package movie_master.api.dto.UserMovie;
+
+import java.util.Date;
+
+public record WatchlistItemDto(
+    long id,
+    long movieId,
+    String title,
+    String posterPath,
+    Date releaseDate,
+    double tmdbRating,
+    Double mmAvgRating,
+    boolean watched,
+    Double rating
+) {}
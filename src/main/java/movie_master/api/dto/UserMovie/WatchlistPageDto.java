@@ -0,0 +1,14 @@
+package movie_master.api.dto.UserMovie;
+
+import java.util.List;
+
+/**
+ * A page of a watchlist
+ *
+ * @param items      the watchlist items on this page
+ * @param nextCursor cursor to request the next page with, null on the last page
+ */
+public record WatchlistPageDto(
+    List<WatchlistItemDto> items,
+    String nextCursor
+) {}
@@ -0,0 +1,7 @@
+package movie_master.api.exception;
+
+public class InvalidCursorException extends Exception {
+    public InvalidCursorException(String cursor) {
+        super("Cursor '%s' is not valid".formatted(cursor));
+    }
+}
@@ -1,6 +1,7 @@
 package movie_master.api.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * The default JWT Util implementation
@@ -23,38 +25,43 @@ import java.util.Map;
 @Component
 public class DefaultJwtUtil implements JwtUtil {
     /**
-     * This is a secret string value that only the back-end application should have access to
+     * The signing key is derived from a secret string value that only the back-end application should have access to
      * It is being used alongside a hashing algorithm such as HS256 to sign a jwt
      * By signing the jwt, the integrity of the jwt is being assured
+     * The key and parser are built once and shared between requests, the parser is immutable and thread-safe
+     * A changed secret takes effect after a restart
      */
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+
+    public DefaultJwtUtil(@Value("${jwt.secret}") String secret) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
     // Generate a jwt for a user
     @Override
     public String generateJwt(Map<String, Object> claims, String subject) {
-        Key key = getSigningKey();
-
         return Jwts.builder()
                 .setClaims(claims) // set the statements about the user
                 .setSubject(subject) // set the username
                 .setIssuedAt(new Date()) // set the date when the jwt has been created
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))  // jwt is valid for 1 day
-                .signWith(key, SignatureAlgorithm.HS256) // sign the jwt with a secret key and hashing algorithm hs256
+                .signWith(signingKey, SignatureAlgorithm.HS256) // sign the jwt with a secret key and hashing algorithm hs256
                 .compact();
     }
 
     // Generate a refresh jwt for a user
     @Override
     public String generateRefreshJwt(Map<String, Object> claims, String subject) {
-        Key key = getSigningKey();
-
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24 * 3))  // 3 days
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -64,19 +71,27 @@ public class DefaultJwtUtil implements JwtUtil {
      */
     @Override
     public Claims extractClaims(String token) {
-        Key key = getSigningKey();
-
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    // Helper method to get the signing key from the base64-encoded secret
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Parse and verify the jwt once and extract all the statements the application needs
+     * Use this instead of calling the separate getters, which each verify the jwt again
+     */
+    @Override
+    public JwtClaims parseJwt(String jwt) {
+        Claims claims = extractClaims(jwt);
+        String role = claims.get("role", String.class);
+
+        return new JwtClaims(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                role == null ? null : Role.valueOf(role),
+                claims.get("tokenVersion", Integer.class),
+                claims.getExpiration()
+        );
     }
 
     // Extract the id of a user
@@ -100,12 +115,13 @@ public class DefaultJwtUtil implements JwtUtil {
     // Check whether the jwt is valid
     @Override
     public boolean isJwtValid(String jwt, Long userId, String username, Role role) {
-        return (getUserId(jwt).equals(userId) && getSubject(jwt).equals(username)
-                && getRole(jwt).equals(role) && !isJwtExpired(jwt));
+        return isJwtValid(parseJwt(jwt), userId, username, role);
     }
 
-    // Helper method to check whether the jwt is valid
-    private boolean isJwtExpired(String jwt) {
-        return extractClaims(jwt).getExpiration().before(new Date());
+    // Check whether the already parsed claims of a jwt are valid
+    @Override
+    public boolean isJwtValid(JwtClaims jwtClaims, Long userId, String username, Role role) {
+        return (Objects.equals(jwtClaims.userId(), userId) && Objects.equals(jwtClaims.username(), username)
+                && jwtClaims.role() == role && !jwtClaims.isExpired());
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package movie_master.api.jwt;
+
+import movie_master.api.model.role.Role;
+
+import java.util.Date;
+
+/**
+ * The verified claims of a jwt
+ * The jwt filter parses and verifies the jwt of a request once and stores these claims on the request
+ * Controllers can get a hold of them by declaring a parameter of this type, instead of parsing the
+ * Authorization header again
+ *
+ * @param userId       id of the user
+ * @param username     username of the user (the subject of the jwt)
+ * @param role         role of the user
+ * @param tokenVersion version of the user's tokens at the moment the jwt was issued
+ * @param expiration   date on which the jwt expires
+ */
+public record JwtClaims(Long userId, String username, Role role, Integer tokenVersion, Date expiration) {
+    /**
+     * Name of the request attribute that holds the claims of the authenticated request
+     */
+    public static final String REQUEST_ATTRIBUTE = JwtClaims.class.getName();
+
+    // Check whether the jwt has expired
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,35 @@
+package movie_master.api.jwt;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resolves controller parameters of type JwtClaims
+ * The claims are taken from the request attribute that the jwt filter has set,
+ * so the jwt is not being parsed and verified a second time
+ */
+public class JwtClaimsArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return JwtClaims.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object jwtClaims = webRequest.getAttribute(JwtClaims.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        // The request has not passed the jwt filter
+        if (jwtClaims == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication is required to access this resource");
+        }
+        return jwtClaims;
+    }
+}
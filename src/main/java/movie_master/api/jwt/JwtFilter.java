@@ -1,5 +1,6 @@
 package movie_master.api.jwt;
 
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -10,6 +11,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import movie_master.api.model.detail.CustomUserDetails;
 import movie_master.api.model.role.Role;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,21 +21,35 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 /**
  * Custom filter for JWT
  * This class is a filter that has the responsibility to validate the jwt of a user
  * If the jwt is valid, Spring sets the user performing the request as the currently authenticated user and
  * the user gets access to the protected resource since the jwt has passed the filter
+ * In stateless mode, the identity and role in the jwt are trusted until it expires and the user is not
+ * loaded from the database. Only the token version of the user is checked, which is cached in memory
  */
 @Component
 public class JwtFilter extends OncePerRequestFilter {
+    /**
+     * Browsers can't set headers on an EventSource, so event streams also accept the jwt in this query parameter
+     */
+    public static final String ACCESS_TOKEN_PARAMETER = "access_token";
+    private static final Pattern EVENT_STREAM_PATH = Pattern.compile("/forum/topics/\\d+/live");
+
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionCache tokenVersionCache;
+    private final boolean stateless;
 
-    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, TokenVersionCache tokenVersionCache,
+                     @Value("${jwt.stateless:false}") boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionCache = tokenVersionCache;
+        this.stateless = stateless;
     }
 
     /**
@@ -58,6 +74,9 @@ public class JwtFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain)
             throws ServletException, IOException {
         String jwt = request.getHeader("Authorization");
+        if (jwt == null && isEventStream(request) && request.getParameter(ACCESS_TOKEN_PARAMETER) != null) {
+            jwt = "Bearer " + request.getParameter(ACCESS_TOKEN_PARAMETER);
+        }
 
         // There is no authorization header
         if (jwt == null || !jwt.startsWith("Bearer ")) {
@@ -70,21 +89,34 @@ public class JwtFilter extends OncePerRequestFilter {
         jwt = jwt.substring(7);
 
         try {
-            // Extract the user id from the jwt
-            Long jwtUserId = jwtUtil.getUserId(jwt);
-            // Extract the username from the jwt
-            String jwtUsername = jwtUtil.getSubject(jwt);
+            // Parse and verify the jwt once, the claims are reused for the rest of the request
+            JwtClaims jwtClaims = jwtUtil.parseJwt(jwt);
+            Long jwtUserId = jwtClaims.userId();
+            String jwtUsername = jwtClaims.username();
 
             // The userId and username can not be null. Also at this point, Spring should not hold a reference to an authenticated user yet
             if (jwtUserId != null && jwtUsername != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Get the details of the user from the database
-                CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername(jwtUsername);
-                Long userId = userDetails.getUserId();
-                String username = userDetails.getUsername();
-                Role role = userDetails.getRole();
-
-                // Check if the jwt is valid
-                if (jwtUtil.isJwtValid(jwt, userId, username, role)) {
+                CustomUserDetails userDetails;
+                boolean jwtValid;
+
+                if (stateless) {
+                    // Trust the claims of the jwt, as long as the user has not changed since the jwt was issued
+                    jwtValid = jwtClaims.role() != null && !jwtClaims.isExpired()
+                            && tokenVersionCache.isCurrent(jwtUserId, jwtClaims.tokenVersion());
+                    userDetails = jwtValid ? new CustomUserDetails(jwtUserId, jwtUsername, jwtClaims.role(),
+                            jwtClaims.tokenVersion()) : null;
+                } else {
+                    // Get the details of the user from the database
+                    userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername(jwtUsername);
+                    Long userId = userDetails.getUserId();
+                    String username = userDetails.getUsername();
+                    Role role = userDetails.getRole();
+
+                    // Check if the jwt is valid
+                    jwtValid = jwtUtil.isJwtValid(jwtClaims, userId, username, role);
+                }
+
+                if (jwtValid) {
                     UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities()
                     );
@@ -96,10 +128,13 @@ public class JwtFilter extends OncePerRequestFilter {
                     SecurityContext context = SecurityContextHolder.createEmptyContext();
                     context.setAuthentication(usernamePasswordAuthenticationToken);
                     SecurityContextHolder.setContext(context);
+
+                    // Make the verified claims available to the controllers
+                    request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, jwtClaims);
                 }
             }
         }
-        catch (SignatureException | MalformedJwtException | UnsupportedJwtException e) {
+        catch (SignatureException | MalformedJwtException | UnsupportedJwtException | ExpiredJwtException e) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("{\"error\": \"Unauthorized\", \"message\": \"Invalid or expired jwt\"}");
             return;
@@ -107,4 +142,9 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Check whether the request opens an event stream, the only requests that may carry the jwt in the url
+    private static boolean isEventStream(HttpServletRequest request) {
+        return request.getMethod().equals("GET") && EVENT_STREAM_PATH.matcher(request.getServletPath()).matches();
+    }
+}
@@ -8,8 +8,10 @@ public interface JwtUtil {
     String generateJwt(Map<String, Object> claims, String subject);
     String generateRefreshJwt(Map<String, Object> claims, String subject);
     Object extractClaims(String token);
+    JwtClaims parseJwt(String jwt);
     Long getUserId(String jwt);
     String getSubject(String jwt);
     Role getRole(String jwt);
     boolean isJwtValid(String jwt, Long userId, String username, Role role);
+    boolean isJwtValid(JwtClaims jwtClaims, Long userId, String username, Role role);
 }
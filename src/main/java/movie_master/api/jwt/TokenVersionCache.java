@@ -0,0 +1,97 @@
+package movie_master.api.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import movie_master.api.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Small in-memory cache of the current token version of each user
+ * Every jwt carries the token version of its user at the moment it was issued
+ * Whenever the identity, role or banned status of a user changes, the version is incremented,
+ * which makes all the jwts that were issued before the change invalid
+ * In stateless mode, this check replaces the lookup of the full user on every request
+ * Changes are only applied to the cache of the node that made them, the time to live bounds how long
+ * another node keeps accepting the jwts of the previous version
+ */
+@Component
+public class TokenVersionCache {
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                             @Value("${token-version-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${token-version-cache.time-to-live:PT30S}") Duration timeToLive) {
+        this.userRepository = userRepository;
+        // Least recently used entries are removed once the cache is full
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "tokenVersions");
+    }
+
+    /**
+     * Retrieves the current token version of a user
+     *
+     * @param userId id of the user
+     * @return the token version, or null if the user does not exist
+     */
+    public Integer getVersion(Long userId) {
+        Integer version = versions.getIfPresent(userId);
+
+        if (version == null) {
+            version = userRepository.findTokenVersionById(userId).orElse(null);
+            if (version != null) {
+                // Versions only go up, so never replace a newer version with an older one
+                version = versions.asMap().merge(userId, version, Math::max);
+            }
+        }
+        return version;
+    }
+
+    // Check whether a jwt with the given token version has been issued after the last change of the user
+    public boolean isCurrent(Long userId, Integer tokenVersion) {
+        return tokenVersion != null && tokenVersion.equals(getVersion(userId));
+    }
+
+    /**
+     * Stores the new token version of a user after it has been changed
+     * Inside a transaction the version is only stored after the commit, so a rollback can't leave behind
+     * a version that the database never had
+     */
+    public void update(Long userId, int tokenVersion) {
+        afterCommit(() -> versions.asMap().merge(userId, tokenVersion, Math::max));
+    }
+
+    /**
+     * Removes a user from the cache, e.g. after the user has been deleted
+     * Inside a transaction the user is removed again after the commit, so a lookup in between can't cache
+     * the version from before the change
+     */
+    public void evict(Long userId) {
+        versions.invalidate(userId);
+        afterCommit(() -> versions.invalidate(userId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
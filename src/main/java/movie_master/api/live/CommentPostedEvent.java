@@ -0,0 +1,11 @@
+package movie_master.api.live;
+
+import movie_master.api.dto.Forum.CommentDto;
+
+/**
+ * A comment has been placed on a topic of the forum
+ *
+ * @param topicId id of the topic
+ * @param comment the placed comment
+ */
+public record CommentPostedEvent(long topicId, CommentDto comment) implements ForumEvent {}
@@ -0,0 +1,16 @@
+package movie_master.api.live;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries new comments and topics to all nodes of the application, so a client gets the
+ * comments of its topic whichever node it is connected to, and every node ranks the same activity
+ */
+public interface ForumBroker {
+
+    // Sends an event to every subscriber, including the ones of this node
+    void publish(ForumEvent event);
+
+    // Registers a listener of this node
+    void subscribe(Consumer<ForumEvent> listener);
+}
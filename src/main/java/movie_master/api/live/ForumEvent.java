@@ -0,0 +1,10 @@
+package movie_master.api.live;
+
+/**
+ * Something that happened on the forum and that every node of the application has to know about
+ */
+public sealed interface ForumEvent permits CommentPostedEvent, TopicCreatedEvent {
+
+    // id of the topic the event is about
+    long topicId();
+}
@@ -0,0 +1,171 @@
+package movie_master.api.live;
+
+import jakarta.annotation.PreDestroy;
+import movie_master.api.dto.Forum.CommentDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes new comments to the clients that follow a topic, as server-sent events
+ * Every subscriber has a small buffer that a shared pool of sender threads drains, so a slow client
+ * never holds up the others. A client that falls a whole buffer behind is dropped, it can reconnect
+ * and reload the comments it missed
+ */
+@Component
+public class ForumLiveHub {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForumLiveHub.class);
+    static final String COMMENT_EVENT = "comment";
+
+    private final ForumBroker broker;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+    private final Map<Long, Set<Subscriber>> subscribersByTopic = new ConcurrentHashMap<>();
+
+    public ForumLiveHub(ForumBroker broker,
+                        @Value("${forum.live.buffer-size:32}") int bufferSize,
+                        @Value("${forum.live.timeout:PT30M}") Duration timeout,
+                        @Value("${forum.live.sender-threads:4}") int senderThreads) {
+        this.broker = broker;
+        this.bufferSize = Math.max(bufferSize, 1);
+        this.timeoutMillis = timeout.toMillis();
+        this.sender = Executors.newFixedThreadPool(Math.max(senderThreads, 1));
+        broker.subscribe(event -> {
+            if (event instanceof CommentPostedEvent commentPosted) {
+                deliver(commentPosted);
+            }
+        });
+    }
+
+    // Opens a stream of the new comments of a topic
+    public SseEmitter subscribe(long topicId) {
+        return subscribe(topicId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(long topicId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(topicId, emitter);
+        subscribersByTopic.compute(topicId, (id, subscribers) -> {
+            Set<Subscriber> topicSubscribers = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            topicSubscribers.add(subscriber);
+            return topicSubscribers;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    // Hands a comment to the broker once it has been committed, clients never see a comment that was rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void commentPosted(CommentPostedEvent event) {
+        broker.publish(event);
+    }
+
+    // Fans a comment out to the subscribers of its topic on this node
+    void deliver(CommentPostedEvent event) {
+        Set<Subscriber> subscribers = subscribersByTopic.get(event.topicId());
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(event.comment())) {
+                LOGGER.debug("Dropping a subscriber of topic {} that fell behind", event.topicId());
+                drop(subscriber);
+            }
+        }
+    }
+
+    int countSubscribers(long topicId) {
+        Set<Subscriber> subscribers = subscribersByTopic.get(topicId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribersByTopic.computeIfPresent(subscriber.topicId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void drop(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.shutdownNow();
+        subscribersByTopic.values().forEach(subscribers -> subscribers.forEach(this::drop));
+    }
+
+    private final class Subscriber {
+        private final long topicId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<CommentDto> buffer = new ArrayBlockingQueue<>(bufferSize);
+        // Set while a sender thread drains the buffer, so the comments of a subscriber are sent in order
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(long topicId, SseEmitter emitter) {
+            this.topicId = topicId;
+            this.emitter = emitter;
+        }
+
+        // Returns false when the buffer is full
+        private boolean offer(CommentDto comment) {
+            if (!buffer.offer(comment)) {
+                return false;
+            }
+            scheduleDrain();
+            return true;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                CommentDto comment;
+                while ((comment = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .name(COMMENT_EVENT)
+                            .id(String.valueOf(comment.id()))
+                            .data(comment));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client has gone
+                draining.set(false);
+                drop(this);
+                return;
+            }
+            draining.set(false);
+            // Picks up a comment offered after the last poll but before the flag was cleared
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package movie_master.api.live;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broker for a single node, events go straight to the listeners of this node
+ * Running several nodes takes a broker on a shared message bus, declared as the primary ForumBroker bean
+ */
+@Component
+public class InMemoryForumBroker implements ForumBroker {
+    private final List<Consumer<ForumEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ForumEvent event) {
+        listeners.forEach(listener -> listener.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<ForumEvent> listener) {
+        listeners.add(listener);
+    }
+}
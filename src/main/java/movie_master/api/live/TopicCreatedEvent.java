@@ -0,0 +1,11 @@
+package movie_master.api.live;
+
+import java.time.LocalDateTime;
+
+/**
+ * A topic has been created on the forum
+ *
+ * @param topicId   id of the topic
+ * @param createdAt creation time of the topic
+ */
+public record TopicCreatedEvent(long topicId, LocalDateTime createdAt) implements ForumEvent {}
@@ -0,0 +1,22 @@
+package movie_master.api.mapper;
+
+import movie_master.api.dto.MovieCardDto;
+import movie_master.api.model.Genre;
+import movie_master.api.model.Movie;
+import org.springframework.stereotype.Service;
+
+@Service
+public class MovieDtoMapper {
+
+    public MovieCardDto mapMovieToCardDto(Movie movie) {
+        return new MovieCardDto(
+            movie.getId(),
+            movie.getTitle(),
+            movie.getPosterPath(),
+            movie.getReleaseDate(),
+            movie.getTmdbRating(),
+            movie.getMmAvgRating(),
+            movie.getGenres().stream().map(Genre::getId).sorted().toList()
+        );
+    }
+}
@@ -23,7 +23,8 @@ public class ReviewDtoMapper {
             user.getProfilePicture(),
             review.getUserMovie().getMovie().getTitle(),
             review.getRating(),
-            review.getComment()
+            review.getComment(),
+            review.getReviewDate()
         );
     }
 }
@@ -19,8 +19,9 @@ public class TopicDtoMapper {
                 topic.getDescription(),
                 topic.getUser().getUsername(),
                 topic.getUser().getProfilePicture(),
-                topic.getComments().size(),
-                topic.getCreatedAt()
+                topic.getCommentCount(),
+                topic.getCreatedAt(),
+                topic.getLastActivityAt()
         );
     }
 }
\ No newline at end of file
@@ -8,11 +8,16 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class UserMovieDtoMapper {
+    private final MovieDtoMapper movieDtoMapper;
+
+    public UserMovieDtoMapper(MovieDtoMapper movieDtoMapper) {
+        this.movieDtoMapper = movieDtoMapper;
+    }
 
     public UserMovieDto mapUserMovieToDto(UserMovie userMovie) {
         return new UserMovieDto(
             userMovie.getId(),
-            userMovie.getMovie(),
+            movieDtoMapper.mapMovieToCardDto(userMovie.getMovie()),
             userMovie.isWatched(),
             mapReviewToUserMovieReviewDto(userMovie.getReview())
         );
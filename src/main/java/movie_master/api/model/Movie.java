@@ -1,7 +1,9 @@
 package movie_master.api.model;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
@@ -10,17 +12,27 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Table(name = "movie", indexes = {
+    @Index(name = "idx_movie_title", columnList = "title, id"),
+    @Index(name = "idx_movie_tmdb_rating", columnList = "tmdb_rating, id"),
+    @Index(name = "idx_movie_release_date", columnList = "release_date, id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_movie_tmdb_id", columnNames = "tmdb_id"))
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Movie {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
+    // Id of the movie on TMDB, imports and syncs are keyed on it. Movies that were added here have none
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "tmdb_id", updatable = false)
+    private Long tmdbId;
     private String title;
     @JsonAlias("overview")
     @Column(length = 2000)
@@ -33,13 +45,26 @@ public class Movie {
     private String posterPath;
     @JsonAlias("vote_average")
     private double tmdbRating;
+    // The rating aggregates are only written by the atomic updates of MovieRepository, never by saving a movie,
+    // so a saved movie can't overwrite the reviews that were counted in the meantime
     @JsonAlias("mm_avg_rating")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(updatable = false)
     private Double mmAvgRating;
+    // Running aggregates of the reviews, mmAvgRating is derived from these
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private double ratingSum;
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private long ratingCount;
 
     @OneToMany(mappedBy = "movie")
     private Set<UserMovie> userMovies;
 
+    // Loaded for many movies at once when the genres of a list of movies are read
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "movie_genre",
         joinColumns = @JoinColumn(name = "movie_id"),
@@ -69,6 +94,14 @@ public class Movie {
         this.id = id;
     }
 
+    public Long getTmdbId() {
+        return tmdbId;
+    }
+
+    public void setTmdbId(Long tmdbId) {
+        this.tmdbId = tmdbId;
+    }
+
     public String getPosterPath() {
         return posterPath;
     }
@@ -117,6 +150,11 @@ public class Movie {
         this.title = title;
     }
 
+    @JsonIgnore
+    public Set<Genre> getGenres() {
+        return genres;
+    }
+
     public void addGenre(Genre genre) {
         this.genres.add(genre);
     }
@@ -129,4 +167,12 @@ public class Movie {
         this.mmAvgRating = mmAvgRating;
     }
 
+    public double getRatingSum() {
+        return ratingSum;
+    }
+
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
 }
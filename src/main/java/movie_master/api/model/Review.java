@@ -5,7 +5,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "review")
+@Table(name = "review", indexes = {
+    @Index(name = "idx_review_date", columnList = "review_date, review_id"),
+    @Index(name = "idx_review_movie_date", columnList = "movie_id, review_date, review_id")
+})
 public class Review {
 
     @Id
@@ -16,6 +19,10 @@ public class Review {
     @JoinColumn(name = "user_movie", nullable = false)
     private UserMovie userMovie;
 
+    // Copy of the movie of the user movie, so the reviews of a movie are paged with an index that starts with the movie
+    @Column(name = "movie_id")
+    private Long movieId;
+
     @Column(nullable = false)
     private double rating;
 
@@ -26,7 +33,7 @@ public class Review {
     private LocalDateTime reviewDate = LocalDateTime.now();
 
     public Review(UserMovie userMovie, double rating, String comment) {
-        this.userMovie = userMovie;
+        setUserMovie(userMovie);
         this.rating = rating;
         this.comment = comment;
     }
@@ -48,6 +55,11 @@ public class Review {
 
     public void setUserMovie(UserMovie userMovie) {
         this.userMovie = userMovie;
+        this.movieId = userMovie.getMovie().getId();
+    }
+
+    public Long getMovieId() {
+        return movieId;
     }
 
     public double getRating() {
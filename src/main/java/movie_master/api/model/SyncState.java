@@ -0,0 +1,46 @@
+package movie_master.api.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress and lock of a recurring job that may run on every node of the application
+ * The job only runs on the node that holds the lock, which expires in case that node dies
+ */
+@Entity
+@Table(name = "sync_state")
+public class SyncState {
+    @Id
+    private String name;
+    // Everything changed before this moment has been synced
+    private LocalDateTime highWaterMark;
+    private String lockedBy;
+    private LocalDateTime lockedUntil;
+
+    public SyncState() {
+    }
+
+    public SyncState(String name, LocalDateTime highWaterMark) {
+        this.name = name;
+        this.highWaterMark = highWaterMark;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+}
@@ -7,7 +7,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "topic")
+@Table(name = "topic", indexes = {
+    @Index(name = "idx_topic_last_activity", columnList = "last_activity_at, topic_id"),
+    @Index(name = "idx_topic_created_at", columnList = "created_at, topic_id")
+})
 public class Topic {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,6 +19,17 @@ public class Topic {
     private String title;
     private String description;
     private LocalDateTime createdAt;
+    // Kept up to date when comments are placed, so topic listings don't have to count the comments
+    // Like lastActivityAt, it is only written by the updates of TopicRepository, so saving a topic can't undo newer comments
+    @Column(nullable = false, updatable = false)
+    private int commentCount;
+    // Time of the latest comment, or of the creation while there are no comments
+    @Column(updatable = false)
+    private LocalDateTime lastActivityAt;
+    // Last snapshot of the score of the hot topics ranking, null when the topic has never been scored
+    // Only written by the snapshots of TopicBulkRepository
+    @Column(updatable = false)
+    private Double hotScore;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
@@ -30,6 +44,7 @@ public class Topic {
         this.description = description;
         this.user = user;
         this.createdAt = LocalDateTime.now();
+        this.lastActivityAt = createdAt;
         this.comments = new HashSet<>();
     }
 
@@ -72,6 +87,18 @@ public class Topic {
         this.user = user;
     }
 
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public Double getHotScore() {
+        return hotScore;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
     public Set<Comment> getComments() {
         return comments;
     }
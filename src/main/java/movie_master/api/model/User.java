@@ -28,6 +28,7 @@ public class User {
     private Role role;
     private boolean enabled;
     private boolean banned;
+    private int tokenVersion;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference      
@@ -115,6 +116,17 @@ public class User {
         return banned;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    /**
+     * Invalidates all the jwts that have been issued to this user so far
+     */
+    public void incrementTokenVersion() {
+        this.tokenVersion++;
+    }
+
     public void addMovieToWatchlist(UserMovie movie) {
         watchlist.add(movie);
         movie.setUser(this);
@@ -5,6 +5,11 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 
 @Entity
+@Table(
+    uniqueConstraints = {@UniqueConstraint(name = "uk_user_movie", columnNames = {"user_user_id", "movie"})},
+    // InnoDB appends the primary key to secondary indexes, so this serves watchlist pages in added order
+    indexes = {@Index(name = "idx_user_movie_user", columnList = "user_user_id")}
+)
 public class UserMovie {
 
     @Id
@@ -12,6 +17,7 @@ public class UserMovie {
     private Long id;
 
     @ManyToOne(optional = false)
+    @JoinColumn(name = "user_user_id", nullable = false)
     @JsonBackReference
     private User user;
 
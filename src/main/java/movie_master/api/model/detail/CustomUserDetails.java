@@ -22,6 +22,7 @@ public class CustomUserDetails implements UserDetails {
     private final String profilePicture;
     private final boolean enabled;
     private final boolean banned;
+    private final int tokenVersion;
 
     public CustomUserDetails(User user) {
         this.userId = user.getUserId();
@@ -31,6 +32,22 @@ public class CustomUserDetails implements UserDetails {
         this.profilePicture = user.getProfilePicture();
         this.enabled = user.isEnabled();
         this.banned = user.isBanned();
+        this.tokenVersion = user.getTokenVersion();
+    }
+
+    /**
+     * Details of a user that are built from the claims of a verified jwt, without a database lookup
+     * The password is unknown, so these details can not be used for authenticating with credentials
+     */
+    public CustomUserDetails(Long userId, String username, Role role, int tokenVersion) {
+        this.userId = userId;
+        this.username = username;
+        this.password = null;
+        this.authorities = List.of(new SimpleGrantedAuthority(role.toString()));
+        this.profilePicture = null;
+        this.enabled = true;
+        this.banned = false;
+        this.tokenVersion = tokenVersion;
     }
 
     public Long getUserId() {
@@ -45,6 +62,10 @@ public class CustomUserDetails implements UserDetails {
         return this.banned;
     }
 
+    public int getTokenVersion() {
+        return this.tokenVersion;
+    }
+
     @Override
     public String getUsername() {
         return this.username;
@@ -0,0 +1,88 @@
+package movie_master.api.pagination;
+
+import movie_master.api.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor pointing at the last row of a page. It holds the id of that row and
+ * the value of the column the page is sorted on, so the next page can continue with
+ * a keyset (seek) condition instead of an offset.
+ *
+ * @param id  id of the last row, used as tiebreaker
+ * @param key value of the sort column of the last row, empty when the page is sorted on id only
+ */
+public record KeysetCursor(long id, String key) {
+
+    // Response header in which endpoints that return a plain list put the cursor of the next page
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = ":";
+
+    public static KeysetCursor of(long id) {
+        return new KeysetCursor(id, "");
+    }
+
+    public static KeysetCursor of(long id, Object key) {
+        return new KeysetCursor(id, key == null ? "" : key.toString());
+    }
+
+    /**
+     * @return the cursor as an url-safe string
+     */
+    public String encode() {
+        String raw = id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode()}.
+     *
+     * @param cursor the encoded cursor, may be null for the first page
+     * @return the decoded cursor or null when no cursor was given
+     * @throws InvalidCursorException when the cursor was not created by {@link #encode()}
+     */
+    public static KeysetCursor decode(String cursor) throws InvalidCursorException {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new KeysetCursor(Long.parseLong(parts[0]), parts[1]);
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public LocalDateTime keyAsDateTime() throws InvalidCursorException {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException(encode());
+        }
+    }
+
+    public long keyAsLong() throws InvalidCursorException {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(encode());
+        }
+    }
+
+    public double keyAsDouble() throws InvalidCursorException {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(encode());
+        }
+    }
+}
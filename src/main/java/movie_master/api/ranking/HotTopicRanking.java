@@ -0,0 +1,188 @@
+package movie_master.api.ranking;
+
+import jakarta.annotation.PreDestroy;
+import movie_master.api.live.CommentPostedEvent;
+import movie_master.api.live.ForumBroker;
+import movie_master.api.live.ForumEvent;
+import movie_master.api.live.TopicCreatedEvent;
+import movie_master.api.repository.TopicBulkRepository;
+import movie_master.api.repository.TopicRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory ranking of the forum topics by recent activity
+ * Every comment and every new topic adds one point, and points lose half their worth every half-life.
+ * Decaying all scores as time passes would touch every topic, so instead every point is weighed by
+ * 2^(time / half-life) when it is added. That makes later points worth more in exactly the way earlier
+ * ones should have decayed, so the order of the scores is always right and only the topic that got the
+ * point changes. Scores are kept as base 2 logarithms, which keeps them from overflowing.
+ * Comments and new topics arrive through the forum broker, so every node ranks the activity of all nodes
+ * Scores are stored in the topic table periodically and on shutdown, so a restart continues from the last snapshot
+ */
+@Component
+public class HotTopicRanking {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HotTopicRanking.class);
+    // Topics whose points have halved this often are worth nothing anymore and are forgotten
+    private static final double FORGET_AFTER_HALF_LIVES = 20;
+    private static final Comparator<Ranked> HOTTEST_FIRST = Comparator.comparingDouble(Ranked::score).reversed()
+            .thenComparingLong(Ranked::topicId);
+
+    private final TopicRepository topicRepository;
+    private final TopicBulkRepository topicBulkRepository;
+    private final ForumBroker forumBroker;
+    private final double halfLifeSeconds;
+    private final Clock clock;
+
+    private final Map<Long, Ranked> byTopic = new HashMap<>();
+    private final TreeSet<Ranked> ranking = new TreeSet<>(HOTTEST_FIRST);
+    // Topics whose score has changed since the last snapshot
+    private final Set<Long> changed = new HashSet<>();
+
+    private record Ranked(long topicId, double score) {}
+
+    @Autowired
+    public HotTopicRanking(TopicRepository topicRepository, TopicBulkRepository topicBulkRepository,
+                           ForumBroker forumBroker,
+                           @Value("${forum.hot.half-life:PT6H}") Duration halfLife) {
+        this(topicRepository, topicBulkRepository, forumBroker, halfLife, Clock.systemDefaultZone());
+    }
+
+    HotTopicRanking(TopicRepository topicRepository, TopicBulkRepository topicBulkRepository,
+                    ForumBroker forumBroker, Duration halfLife, Clock clock) {
+        this.topicRepository = topicRepository;
+        this.topicBulkRepository = topicBulkRepository;
+        this.forumBroker = forumBroker;
+        this.halfLifeSeconds = halfLife.toSeconds();
+        this.clock = clock;
+        // The broker also brings the comments and topics of other nodes
+        forumBroker.subscribe(this::received);
+    }
+
+    // Hands a new topic to the broker, which brings it back to the ranking of every node
+    public void topicCreated(long topicId, LocalDateTime createdAt) {
+        forumBroker.publish(new TopicCreatedEvent(topicId, createdAt));
+    }
+
+    private void received(ForumEvent event) {
+        switch (event) {
+            case CommentPostedEvent commentPosted -> addPoint(commentPosted.topicId(), commentPosted.comment().creationDate());
+            case TopicCreatedEvent topicCreated -> addPoint(topicCreated.topicId(), topicCreated.createdAt());
+        }
+    }
+
+    /**
+     * @param limit maximum amount of topics
+     * @return ids of the hottest topics, hottest first
+     */
+    public synchronized List<Long> top(int limit) {
+        return ranking.stream().limit(limit).map(Ranked::topicId).toList();
+    }
+
+    private synchronized void addPoint(long topicId, LocalDateTime at) {
+        double point = logWeight(at);
+        Ranked current = byTopic.get(topicId);
+        setScore(topicId, current == null ? point : log2Sum(current.score(), point));
+        changed.add(topicId);
+    }
+
+    private void setScore(long topicId, double score) {
+        Ranked ranked = new Ranked(topicId, score);
+        Ranked previous = byTopic.put(topicId, ranked);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        ranking.add(ranked);
+    }
+
+    // Base 2 logarithm of the weight of a point at the given time
+    private double logWeight(LocalDateTime at) {
+        return at.atZone(clock.getZone()).toEpochSecond() / halfLifeSeconds;
+    }
+
+    // Base 2 logarithm of 2^a + 2^b, without computing the powers themselves
+    static double log2Sum(double a, double b) {
+        double max = Math.max(a, b);
+        double min = Math.min(a, b);
+        return max + Math.log1p(Math.pow(2, min - max)) / Math.log(2);
+    }
+
+    /**
+     * Loads the scores of the topics that have been active lately. Topics that were never scored
+     * start with a single point at their last activity
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime since = LocalDateTime.now(clock)
+                .minusSeconds((long) (FORGET_AFTER_HALF_LIVES * halfLifeSeconds));
+        List<TopicScore> scores = topicRepository.findScoresActiveSince(since);
+        synchronized (this) {
+            for (TopicScore score : scores) {
+                if (!byTopic.containsKey(score.topicId())) {
+                    setScore(score.topicId(),
+                            score.hotScore() != null ? score.hotScore() : logWeight(score.lastActivityAt()));
+                }
+            }
+        }
+        LOGGER.info("Loaded the hot scores of {} topics", scores.size());
+    }
+
+    // Stores the scores that have changed and forgets the topics that have cooled down completely
+    @Scheduled(fixedDelayString = "${forum.hot.snapshot-interval:PT5M}")
+    public void snapshot() {
+        Map<Long, Double> snapshot = new HashMap<>();
+        synchronized (this) {
+            for (long topicId : changed) {
+                snapshot.put(topicId, byTopic.get(topicId).score());
+            }
+            changed.clear();
+
+            double forgetBelow = logWeight(LocalDateTime.now(clock)) - FORGET_AFTER_HALF_LIVES;
+            Iterator<Ranked> coldest = ranking.descendingIterator();
+            while (coldest.hasNext()) {
+                Ranked ranked = coldest.next();
+                if (ranked.score() >= forgetBelow) {
+                    break;
+                }
+                coldest.remove();
+                byTopic.remove(ranked.topicId());
+            }
+        }
+
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        try {
+            topicBulkRepository.updateHotScores(snapshot);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not store the hot scores of {} topics, retrying on the next snapshot", snapshot.size(), e);
+            synchronized (this) {
+                snapshot.keySet().stream().filter(byTopic::containsKey).forEach(changed::add);
+            }
+        }
+    }
+
+    // Stores the scores on shutdown, so the points since the last snapshot aren't lost
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+}
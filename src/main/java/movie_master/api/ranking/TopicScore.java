@@ -0,0 +1,12 @@
+package movie_master.api.ranking;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored hot score of a topic
+ *
+ * @param topicId        id of the topic
+ * @param hotScore       the last snapshot of the score, null when the topic has never been scored
+ * @param lastActivityAt time of the latest comment, or of the creation while there are no comments
+ */
+public record TopicScore(long topicId, Double hotScore, LocalDateTime lastActivityAt) {}
@@ -1,11 +1,34 @@
 package movie_master.api.repository;
 
+import movie_master.api.dto.Forum.CommentDto;
 import movie_master.api.model.Comment;
-import movie_master.api.model.Topic;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByTopic(Topic topic);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a page of the comments of a topic with their author, oldest first, in a single query.
+     *
+     * @param topicId  The ID of the topic.
+     * @param afterAt  The creation time of the last comment of the previous page.
+     * @param afterId  The ID of the last comment of the previous page, null for the first page.
+     * @param pageable Only the page size is used, the query always starts at the cursor.
+     * @return The comments on the page.
+     */
+    @Query("SELECT new movie_master.api.dto.Forum.CommentDto(" +
+            "c.commentId, c.content, u.username, u.profilePicture, c.createdAt) " +
+            "FROM Comment c JOIN c.user u " +
+            "WHERE c.topic.topicId = :topicId " +
+            "AND (:afterId IS NULL OR c.createdAt > :afterAt OR (c.createdAt = :afterAt AND c.commentId > :afterId)) " +
+            "ORDER BY c.createdAt ASC, c.commentId ASC")
+    List<CommentDto> findPageByTopic(@Param("topicId") long topicId,
+                                     @Param("afterAt") LocalDateTime afterAt,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+}
@@ -0,0 +1,157 @@
+package movie_master.api.repository;
+
+import jakarta.transaction.Transactional;
+import movie_master.api.model.Genre;
+import movie_master.api.model.Movie;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes many movies at once with JDBC batches, for imports and syncs from TMDB
+ * Movies are keyed on their unique TMDB id here, the id of the movie stays the surrogate key that is
+ * generated by the database. Their genres are written in a batch as well
+ */
+@Repository
+public class MovieBulkRepository {
+    private static final String INSERT_MOVIE = "INSERT IGNORE INTO movie " +
+            "(tmdb_id, title, description, language, release_date, poster_path, tmdb_rating, rating_sum, rating_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)";
+    // Fires on the unique TMDB id. The rating aggregates are left alone, they belong to the reviews of this application
+    private static final String UPSERT_MOVIE = "INSERT INTO movie " +
+            "(tmdb_id, title, description, language, release_date, poster_path, tmdb_rating, rating_sum, rating_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0) ON DUPLICATE KEY UPDATE " +
+            "title = VALUES(title), description = VALUES(description), language = VALUES(language), " +
+            "release_date = VALUES(release_date), poster_path = VALUES(poster_path), tmdb_rating = VALUES(tmdb_rating)";
+    // Movies that were imported before they had a TMDB id are matched on their title and release date
+    private static final String CLAIM_MOVIE = "UPDATE movie SET tmdb_id = ? " +
+            "WHERE tmdb_id IS NULL AND title = ? AND release_date <=> ? LIMIT 1";
+    private static final String FIND_IDS = "SELECT id, tmdb_id FROM movie WHERE tmdb_id IN (%s)";
+    private static final String INSERT_MOVIE_GENRE = "INSERT IGNORE INTO movie_genre (movie_id, genre_id) VALUES (?, ?)";
+    private static final String DELETE_MOVIE_GENRES = "DELETE FROM movie_genre WHERE movie_id = ?";
+    private static final String UPSERT_GENRE = "INSERT INTO genre (id, name) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovieBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts movies and their genres, movies that exist already are skipped
+     *
+     * @param movies movies with their TMDB id
+     */
+    @Transactional
+    public void insertAll(Collection<Movie> movies) {
+        if (movies.isEmpty()) {
+            return;
+        }
+
+        claimMovies(movies);
+        writeMovies(INSERT_MOVIE, movies);
+        insertGenres(findIds(movies), movies);
+    }
+
+    /**
+     * Inserts movies or updates the ones that exist already, their genres are replaced
+     *
+     * @param movies movies with their TMDB id
+     */
+    @Transactional
+    public void upsertAll(Collection<Movie> movies) {
+        if (movies.isEmpty()) {
+            return;
+        }
+
+        writeMovies(UPSERT_MOVIE, movies);
+        Map<Long, Long> ids = findIds(movies);
+        List<Long> movieIds = List.copyOf(ids.values());
+        jdbcTemplate.batchUpdate(DELETE_MOVIE_GENRES, movieIds, movieIds.size(),
+                (statement, movieId) -> statement.setLong(1, movieId));
+        insertGenres(ids, movies);
+    }
+
+    // Inserts genres or renames the ones that exist already
+    @Transactional
+    public void upsertGenres(Collection<Genre> genres) {
+        jdbcTemplate.batchUpdate(UPSERT_GENRE, genres, genres.size(), (statement, genre) -> {
+            statement.setLong(1, genre.getId());
+            statement.setString(2, genre.getName());
+        });
+    }
+
+    // Gives the TMDB id to movies without one that match a movie that isn't in the catalog yet
+    private void claimMovies(Collection<Movie> movies) {
+        Set<Long> known = findIds(movies).keySet();
+        List<Movie> unknown = movies.stream()
+                .filter(movie -> !known.contains(movie.getTmdbId()))
+                .toList();
+        jdbcTemplate.batchUpdate(CLAIM_MOVIE, unknown, unknown.size(), (statement, movie) -> {
+            statement.setLong(1, movie.getTmdbId());
+            statement.setString(2, movie.getTitle());
+            setReleaseDate(statement, 3, movie);
+        });
+    }
+
+    private void writeMovies(String sql, Collection<Movie> movies) {
+        jdbcTemplate.batchUpdate(sql, movies, movies.size(), (statement, movie) -> {
+            statement.setLong(1, movie.getTmdbId());
+            statement.setString(2, movie.getTitle());
+            statement.setString(3, movie.getDescription());
+            statement.setString(4, movie.getLanguage());
+            setReleaseDate(statement, 5, movie);
+            statement.setString(6, movie.getPosterPath());
+            statement.setDouble(7, movie.getTmdbRating());
+        });
+    }
+
+    private static void setReleaseDate(PreparedStatement statement, int index, Movie movie) throws SQLException {
+        if (movie.getReleaseDate() == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, new Timestamp(movie.getReleaseDate().getTime()));
+        }
+    }
+
+    // Ids of the movies in the catalog by their TMDB id
+    private Map<Long, Long> findIds(Collection<Movie> movies) {
+        Object[] tmdbIds = movies.stream().map(Movie::getTmdbId).toArray();
+        String placeholders = String.join(", ", Collections.nCopies(tmdbIds.length, "?"));
+        Map<Long, Long> ids = new HashMap<>();
+        jdbcTemplate.query(FIND_IDS.formatted(placeholders),
+                (RowCallbackHandler) resultSet -> ids.put(resultSet.getLong("tmdb_id"), resultSet.getLong("id")),
+                tmdbIds);
+        return ids;
+    }
+
+    private void insertGenres(Map<Long, Long> ids, Collection<Movie> movies) {
+        List<long[]> movieGenres = new ArrayList<>();
+        for (Movie movie : movies) {
+            Long movieId = ids.get(movie.getTmdbId());
+            if (movieId == null) {
+                continue;
+            }
+            for (Genre genre : movie.getGenres()) {
+                movieGenres.add(new long[]{movieId, genre.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVIE_GENRE, movieGenres, movieGenres.size(), (statement, movieGenre) -> {
+            statement.setLong(1, movieGenre[0]);
+            statement.setLong(2, movieGenre[1]);
+        });
+    }
+}
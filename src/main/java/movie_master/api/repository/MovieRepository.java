@@ -1,20 +1,187 @@
 package movie_master.api.repository;
 
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import movie_master.api.dto.MovieCardDto;
+import movie_master.api.dto.MovieDetailDto;
+import movie_master.api.dto.MovieGenreDto;
 import movie_master.api.model.Movie;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
-    List<Movie> findByTitleContaining(String title, Pageable pageable);
-    List<Movie> findAllByGenres_Name(String genreName);
 
-    long countByTitleContaining(String title);
+    String MOVIE_CARD_SELECT = "SELECT new movie_master.api.dto.MovieCardDto(" +
+            "m.id, m.title, m.posterPath, m.releaseDate, m.tmdbRating, m.mmAvgRating) FROM Movie m ";
+
+    // Movies having at least :minGenres of the given genres, 1 for any of them and all of them for every genre
+    String GENRE_FILTER = MOVIE_CARD_SELECT + "WHERE m.id IN (" +
+            "SELECT gm.id FROM Movie gm JOIN gm.genres g WHERE g.id IN :genreIds " +
+            "GROUP BY gm.id HAVING COUNT(g.id) >= :minGenres) ";
+
+    /**
+     * Retrieves the list fields of the given movies, in no particular order.
+     *
+     * @param ids The IDs of the movies.
+     * @return The movies that exist, without their genre IDs.
+     */
+    @Query(MOVIE_CARD_SELECT + "WHERE m.id IN :ids")
+    List<MovieCardDto> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves which of the given movies of TMDB are in the catalog.
+     *
+     * @param tmdbIds The TMDB IDs of the movies.
+     * @return The TMDB IDs of the movies that exist.
+     */
+    @Query("SELECT m.tmdbId FROM Movie m WHERE m.tmdbId IN :tmdbIds")
+    List<Long> findTmdbIdsByTmdbIdIn(@Param("tmdbIds") Collection<Long> tmdbIds);
+
+    /**
+     * Retrieves the IDs of the given movies of TMDB.
+     *
+     * @param tmdbIds The TMDB IDs of the movies.
+     * @return The IDs of the movies in the catalog.
+     */
+    @Query("SELECT m.id FROM Movie m WHERE m.tmdbId IN :tmdbIds")
+    List<Long> findIdsByTmdbIdIn(@Param("tmdbIds") Collection<Long> tmdbIds);
+
+    /**
+     * Retrieves all fields of a movie except its relations.
+     *
+     * @param id The ID of the movie.
+     * @return The movie without its genre IDs, if it exists.
+     */
+    @Query("SELECT new movie_master.api.dto.MovieDetailDto(m.id, m.title, m.description, m.releaseDate, " +
+            "m.language, m.posterPath, m.tmdbRating, m.mmAvgRating) FROM Movie m WHERE m.id = :id")
+    Optional<MovieDetailDto> findDetailById(@Param("id") long id);
+
+    /**
+     * Retrieves the genre IDs of the given movies in a single query.
+     *
+     * @param movieIds The IDs of the movies.
+     * @return A pair for every genre of every movie.
+     */
+    @Query("SELECT new movie_master.api.dto.MovieGenreDto(m.id, g.id) FROM Movie m JOIN m.genres g " +
+            "WHERE m.id IN :movieIds ORDER BY g.id")
+    List<MovieGenreDto> findGenreIdsByMovieIdIn(@Param("movieIds") Collection<Long> movieIds);
+
+    /**
+     * Retrieves a page of the movies with the given genres, alphabetically on title.
+     * Every movie is returned once, however many of the genres it has.
+     *
+     * @param genreIds   The IDs of the genres.
+     * @param minGenres  The amount of the genres a movie needs.
+     * @param afterTitle The title of the last movie of the previous page.
+     * @param afterId    The ID of the last movie of the previous page, null for the first page.
+     * @param pageable   Only the page size is used, the query always starts at the cursor.
+     * @return The movies on the page.
+     */
+    @Query(GENRE_FILTER +
+            "AND (:afterId IS NULL OR m.title > :afterTitle OR (m.title = :afterTitle AND m.id > :afterId)) " +
+            "ORDER BY m.title ASC, m.id ASC")
+    List<MovieCardDto> findByGenresOrderByTitle(@Param("genreIds") Collection<Long> genreIds,
+                                         @Param("minGenres") long minGenres,
+                                         @Param("afterTitle") String afterTitle,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    /**
+     * Retrieves a page of the movies with the given genres, highest TMDB rating first.
+     *
+     * @param genreIds    The IDs of the genres.
+     * @param minGenres   The amount of the genres a movie needs.
+     * @param afterRating The rating of the last movie of the previous page.
+     * @param afterId     The ID of the last movie of the previous page, null for the first page.
+     * @param pageable    Only the page size is used, the query always starts at the cursor.
+     * @return The movies on the page.
+     */
+    @Query(GENRE_FILTER +
+            "AND (:afterId IS NULL OR m.tmdbRating < :afterRating " +
+            "OR (m.tmdbRating = :afterRating AND m.id > :afterId)) " +
+            "ORDER BY m.tmdbRating DESC, m.id ASC")
+    List<MovieCardDto> findByGenresOrderByRating(@Param("genreIds") Collection<Long> genreIds,
+                                          @Param("minGenres") long minGenres,
+                                          @Param("afterRating") Double afterRating,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    /**
+     * Retrieves a page of the movies with the given genres, newest release first.
+     * Movies without a release date come last, as MySQL sorts nulls last when descending.
+     *
+     * @param genreIds         The IDs of the genres.
+     * @param minGenres        The amount of the genres a movie needs.
+     * @param afterReleaseDate The release date of the last movie of the previous page, may be null.
+     * @param afterId          The ID of the last movie of the previous page, null for the first page.
+     * @param pageable         Only the page size is used, the query always starts at the cursor.
+     * @return The movies on the page.
+     */
+    @Query(GENRE_FILTER +
+            "AND (:afterId IS NULL " +
+            "OR (:afterReleaseDate IS NULL AND m.releaseDate IS NULL AND m.id > :afterId) " +
+            "OR (:afterReleaseDate IS NOT NULL AND (m.releaseDate < :afterReleaseDate OR m.releaseDate IS NULL " +
+            "OR (m.releaseDate = :afterReleaseDate AND m.id > :afterId)))) " +
+            "ORDER BY m.releaseDate DESC, m.id ASC")
+    List<MovieCardDto> findByGenresOrderByReleaseDate(@Param("genreIds") Collection<Long> genreIds,
+                                               @Param("minGenres") long minGenres,
+                                               @Param("afterReleaseDate") Date afterReleaseDate,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
 
     Optional<Movie> findByTitle(String title);
+
+    /**
+     * Adjusts the rating aggregates of a movie in a single statement, so concurrent reviews
+     * don't overwrite each other.
+     * The average has to stay the first assignment. MySQL evaluates the assignments of a
+     * single-table UPDATE from left to right, and every later assignment reads the values the
+     * earlier ones already wrote. Assigned after the sum and count, the average would add the
+     * deltas twice. Assigned first, it reads the old sum and count, the same values that databases
+     * following the SQL standard read for every assignment.
+     *
+     * @param movieId    The ID of the movie.
+     * @param sumDelta   The change in the sum of the ratings.
+     * @param countDelta The change in the amount of ratings.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    // mmAvgRating first, it relies on MySQL reading ratingSum and ratingCount before they are adjusted
+    @Query("UPDATE Movie m SET " +
+            "m.mmAvgRating = CASE WHEN m.ratingCount + :countDelta > 0 " +
+            "THEN (m.ratingSum + :sumDelta) / (m.ratingCount + :countDelta) ELSE NULL END, " +
+            "m.ratingSum = m.ratingSum + :sumDelta, " +
+            "m.ratingCount = m.ratingCount + :countDelta " +
+            "WHERE m.id = :movieId")
+    int adjustRating(@Param("movieId") long movieId,
+                     @Param("sumDelta") double sumDelta,
+                     @Param("countDelta") long countDelta);
+
+    /**
+     * Recomputes the rating aggregates of all movies from their reviews.
+     *
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE movie m LEFT JOIN (" +
+            "SELECT um.movie AS movie_id, SUM(r.rating) AS rating_sum, COUNT(*) AS rating_count " +
+            "FROM review r JOIN user_movie um ON um.id = r.user_movie GROUP BY um.movie" +
+            ") agg ON agg.movie_id = m.id " +
+            "SET m.rating_sum = COALESCE(agg.rating_sum, 0), " +
+            "m.rating_count = COALESCE(agg.rating_count, 0), " +
+            "m.mm_avg_rating = agg.rating_sum / agg.rating_count",
+            nativeQuery = true)
+    int recomputeRatingAggregates();
 }
@@ -1,15 +1,88 @@
 package movie_master.api.repository;
 
 import jakarta.transaction.Transactional;
+import movie_master.api.dto.MovieRatingDto;
+import movie_master.api.dto.ReviewDto;
 import movie_master.api.model.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
+    String REVIEW_DTO_SELECT = "SELECT new movie_master.api.dto.ReviewDto(" +
+            "r.reviewId, u.userId, u.username, u.profilePicture, m.title, r.rating, r.comment, r.reviewDate) " +
+            "FROM Review r JOIN r.userMovie um JOIN um.user u JOIN um.movie m ";
+
+    String AFTER_CURSOR = "(:afterId IS NULL OR r.reviewDate < :afterDate " +
+            "OR (r.reviewDate = :afterDate AND r.reviewId < :afterId)) ";
+
+    /**
+     * Retrieves the latest reviews, with their author and movie, in a single query.
+     *
+     * @param afterDate review date of the last review of the previous page
+     * @param afterId   id of the last review of the previous page, null for the first page
+     * @param pageable  only the page size is used, the query always starts at the cursor
+     * @return the reviews on the page, newest first
+     */
+    @Query(REVIEW_DTO_SELECT +
+            "WHERE " + AFTER_CURSOR +
+            "ORDER BY r.reviewDate DESC, r.reviewId DESC")
+    List<ReviewDto> findLatest(@Param("afterDate") LocalDateTime afterDate,
+                               @Param("afterId") Long afterId,
+                               Pageable pageable);
+
+    /**
+     * Retrieves the latest reviews of a movie, with their author and movie, in a single query.
+     * Filtering on the movie id of the review itself lets the (movie_id, review_date, review_id) index
+     * serve both the filter and the order, so only the reviews on the page are read.
+     *
+     * @param movieId   id of the movie
+     * @param afterDate review date of the last review of the previous page
+     * @param afterId   id of the last review of the previous page, null for the first page
+     * @param pageable  only the page size is used, the query always starts at the cursor
+     * @return the reviews on the page, newest first
+     */
+    @Query(REVIEW_DTO_SELECT +
+            "WHERE r.movieId = :movieId AND " + AFTER_CURSOR +
+            "ORDER BY r.reviewDate DESC, r.reviewId DESC")
+    List<ReviewDto> findLatestByMovie(@Param("movieId") long movieId,
+                                      @Param("afterDate") LocalDateTime afterDate,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Fills in the movie id of the reviews that were placed before it was kept on the review.
+     *
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE review r JOIN user_movie um ON um.id = r.user_movie " +
+            "SET r.movie_id = um.movie WHERE r.movie_id IS NULL",
+            nativeQuery = true)
+    int backfillMovieIds();
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Review r WHERE r.userMovie.user.userId = :userId")
     void deleteByUser(long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Review r WHERE r.userMovie.user.userId = :userId AND r.userMovie.movie.id = :movieId")
+    void deleteByUserAndMovie(long userId, long movieId);
+
+    @Query("SELECT r.rating FROM Review r WHERE r.userMovie.user.userId = :userId AND r.userMovie.movie.id = :movieId")
+    Optional<Double> findRatingByUserAndMovie(long userId, long movieId);
+
+    @Query("SELECT new movie_master.api.dto.MovieRatingDto(r.userMovie.movie.id, r.rating) " +
+            "FROM Review r WHERE r.userMovie.user.userId = :userId")
+    List<MovieRatingDto> findRatingsByUser(long userId);
 }
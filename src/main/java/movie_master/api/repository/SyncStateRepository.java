@@ -0,0 +1,68 @@
+package movie_master.api.repository;
+
+import jakarta.transaction.Transactional;
+import movie_master.api.model.SyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SyncStateRepository extends JpaRepository<SyncState, String> {
+
+    /**
+     * Creates the state of a job unless another node has created it already.
+     *
+     * @param name The name of the job.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO sync_state (name) VALUES (:name)", nativeQuery = true)
+    void createIfAbsent(@Param("name") String name);
+
+    /**
+     * Takes the lock of a job in a single statement, so only one node can get it.
+     *
+     * @param name  The name of the job.
+     * @param owner The node taking the lock.
+     * @param now   The current time, a lock that expired before it is free.
+     * @param until The time the lock expires, in case the node dies while holding it.
+     * @return 1 when the lock has been taken, 0 when another node holds it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncState s SET s.lockedBy = :owner, s.lockedUntil = :until " +
+            "WHERE s.name = :name AND (s.lockedUntil IS NULL OR s.lockedUntil < :now)")
+    int tryLock(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now,
+                @Param("until") LocalDateTime until);
+
+    /**
+     * Releases the lock of a job, unless it has expired and been taken by another node since.
+     *
+     * @param name  The name of the job.
+     * @param owner The node holding the lock.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncState s SET s.lockedBy = NULL, s.lockedUntil = NULL " +
+            "WHERE s.name = :name AND s.lockedBy = :owner")
+    int unlock(@Param("name") String name, @Param("owner") String owner);
+
+    /**
+     * Records how far a job has come.
+     *
+     * @param name          The name of the job.
+     * @param highWaterMark Everything changed before this moment has been synced.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncState s SET s.highWaterMark = :highWaterMark WHERE s.name = :name")
+    int updateHighWaterMark(@Param("name") String name, @Param("highWaterMark") LocalDateTime highWaterMark);
+}
@@ -0,0 +1,37 @@
+package movie_master.api.repository;
+
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a value of many topics at once with JDBC batches
+ */
+@Repository
+public class TopicBulkRepository {
+    private static final String UPDATE_HOT_SCORE = "UPDATE topic SET hot_score = ? WHERE topic_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TopicBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores the hot scores of topics
+     *
+     * @param hotScores scores by topic id
+     */
+    @Transactional
+    public void updateHotScores(Map<Long, Double> hotScores) {
+        List<Map.Entry<Long, Double>> scores = new ArrayList<>(hotScores.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_HOT_SCORE, scores, scores.size(), (statement, score) -> {
+            statement.setDouble(1, score.getValue());
+            statement.setLong(2, score.getKey());
+        });
+    }
+}
@@ -1,6 +1,115 @@
 package movie_master.api.repository;
 
+import jakarta.transaction.Transactional;
+import movie_master.api.dto.Forum.TopicDto;
 import movie_master.api.model.Topic;
+import movie_master.api.ranking.TopicScore;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface TopicRepository extends JpaRepository<Topic, Long> {}
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TopicRepository extends JpaRepository<Topic, Long> {
+
+    String TOPIC_SUMMARY_SELECT = "SELECT new movie_master.api.dto.Forum.TopicDto(" +
+            "t.topicId, t.title, t.description, u.username, u.profilePicture, t.commentCount, t.createdAt, " +
+            "t.lastActivityAt) FROM Topic t JOIN t.user u ";
+
+    /**
+     * Retrieves a page of topics with their author and amount of comments, most recently active first.
+     *
+     * @param afterAt  The last activity of the last topic of the previous page.
+     * @param afterId  The ID of the last topic of the previous page, null for the first page.
+     * @param pageable Only the page size is used, the query always starts at the cursor.
+     * @return The topics on the page.
+     */
+    @Query(TOPIC_SUMMARY_SELECT +
+            "WHERE (:afterId IS NULL OR t.lastActivityAt < :afterAt " +
+            "OR (t.lastActivityAt = :afterAt AND t.topicId < :afterId)) " +
+            "ORDER BY t.lastActivityAt DESC, t.topicId DESC")
+    List<TopicDto> findPageByActivity(@Param("afterAt") LocalDateTime afterAt,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Retrieves a page of topics with their author and amount of comments, newest first.
+     *
+     * @param afterAt  The creation time of the last topic of the previous page.
+     * @param afterId  The ID of the last topic of the previous page, null for the first page.
+     * @param pageable Only the page size is used, the query always starts at the cursor.
+     * @return The topics on the page.
+     */
+    @Query(TOPIC_SUMMARY_SELECT +
+            "WHERE (:afterId IS NULL OR t.createdAt < :afterAt " +
+            "OR (t.createdAt = :afterAt AND t.topicId < :afterId)) " +
+            "ORDER BY t.createdAt DESC, t.topicId DESC")
+    List<TopicDto> findPageByCreation(@Param("afterAt") LocalDateTime afterAt,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Retrieves a topic with its author and amount of comments in a single query.
+     *
+     * @param topicId The ID of the topic.
+     * @return The summary of the topic, if it exists.
+     */
+    @Query(TOPIC_SUMMARY_SELECT + "WHERE t.topicId = :topicId")
+    Optional<TopicDto> findSummaryById(@Param("topicId") long topicId);
+
+    /**
+     * Retrieves topics with their author and amount of comments in a single query, in no particular order.
+     *
+     * @param topicIds The IDs of the topics.
+     * @return The summaries of the topics that exist.
+     */
+    @Query(TOPIC_SUMMARY_SELECT + "WHERE t.topicId IN :topicIds")
+    List<TopicDto> findSummariesByIdIn(@Param("topicIds") Collection<Long> topicIds);
+
+    /**
+     * Retrieves the stored hot scores of the topics that have been active since the given time.
+     *
+     * @param since The earliest last activity.
+     * @return The scores of the topics.
+     */
+    @Query("SELECT new movie_master.api.ranking.TopicScore(t.topicId, t.hotScore, t.lastActivityAt) " +
+            "FROM Topic t WHERE t.lastActivityAt >= :since")
+    List<TopicScore> findScoresActiveSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Counts a new comment of a topic and moves its last activity forward in a single statement,
+     * so concurrent comments are all counted.
+     *
+     * @param topicId   The ID of the topic.
+     * @param createdAt The creation time of the comment.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Topic t SET t.commentCount = t.commentCount + 1, " +
+            "t.lastActivityAt = CASE WHEN t.lastActivityAt IS NULL OR t.lastActivityAt < :createdAt " +
+            "THEN :createdAt ELSE t.lastActivityAt END " +
+            "WHERE t.topicId = :topicId")
+    int commentAdded(@Param("topicId") long topicId, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Recomputes the comment count and last activity of all topics from their comments, correcting any drift.
+     *
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE topic t LEFT JOIN (" +
+            "SELECT c.topic_id, COUNT(*) AS comment_count, MAX(c.created_at) AS last_comment_at " +
+            "FROM comment c GROUP BY c.topic_id" +
+            ") agg ON agg.topic_id = t.topic_id " +
+            "SET t.comment_count = COALESCE(agg.comment_count, 0), " +
+            "t.last_activity_at = GREATEST(t.created_at, COALESCE(agg.last_comment_at, t.created_at))",
+            nativeQuery = true)
+    int recomputeCommentAggregates();
+}
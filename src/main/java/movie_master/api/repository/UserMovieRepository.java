@@ -1,17 +1,131 @@
 package movie_master.api.repository;
 
-import movie_master.api.model.Review;
+import jakarta.transaction.Transactional;
+import movie_master.api.dto.UserMovie.WatchlistItemDto;
 import movie_master.api.model.UserMovie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UserMovieRepository extends JpaRepository<UserMovie, Long> {
 
-    @Query("SELECT u.review FROM UserMovie u WHERE u.movie.id = :id")
-    List<Review> findReviewsByMovieId(@Param("id") long id);
+    String WATCHLIST_PAGE_SELECT = "SELECT new movie_master.api.dto.UserMovie.WatchlistItemDto(" +
+            "u.id, m.id, m.title, m.posterPath, m.releaseDate, m.tmdbRating, m.mmAvgRating, u.watched, r.rating) " +
+            "FROM UserMovie u JOIN u.movie m LEFT JOIN u.review r " +
+            "WHERE u.user.userId = :userId " +
+            "AND (:watched IS NULL OR u.watched = :watched) " +
+            "AND (:hasReview IS NULL OR (:hasReview = true AND r IS NOT NULL) OR (:hasReview = false AND r IS NULL)) " +
+            "AND (:genre IS NULL OR EXISTS (SELECT g.id FROM Genre g JOIN g.movies gm WHERE gm = m AND g.name = :genre)) ";
+
+    /**
+     * Retrieves the watchlist item of a user for a movie, without loading the rest of the watchlist.
+     *
+     * @param userId  The ID of the user.
+     * @param movieId The ID of the movie.
+     * @return The watchlist item if the movie is on the watchlist of the user.
+     */
+    @Query("SELECT u FROM UserMovie u WHERE u.user.userId = :userId AND u.movie.id = :movieId")
+    Optional<UserMovie> findByUserIdAndMovieId(@Param("userId") Long userId, @Param("movieId") long movieId);
+
+    /**
+     * Checks whether a movie is on the watchlist of a user.
+     *
+     * @param userId  The ID of the user.
+     * @param movieId The ID of the movie.
+     * @return true if the movie is on the watchlist, otherwise false.
+     */
+    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END " +
+            "FROM UserMovie u WHERE u.user.userId = :userId AND u.movie.id = :movieId")
+    boolean existsByUserIdAndMovieId(@Param("userId") Long userId, @Param("movieId") long movieId);
+
+    /**
+     * Updates the 'watched' status of a watchlist item in a single statement.
+     *
+     * @param userId  The ID of the user.
+     * @param movieId The ID of the movie.
+     * @param watched The new 'watched' status.
+     * @return The number of updated rows, 0 if the movie is not on the watchlist.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE UserMovie u SET u.watched = :watched WHERE u.user.userId = :userId AND u.movie.id = :movieId")
+    int updateWatchedByUserIdAndMovieId(@Param("userId") Long userId, @Param("movieId") long movieId,
+                                        @Param("watched") boolean watched);
+
+    /**
+     * Deletes the watchlist item of a user for a movie in a single statement.
+     * The review on the item has to be deleted first.
+     *
+     * @param userId  The ID of the user.
+     * @param movieId The ID of the movie.
+     * @return The number of deleted rows, 0 if the movie is not on the watchlist.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserMovie u WHERE u.user.userId = :userId AND u.movie.id = :movieId")
+    int deleteByUserIdAndMovieId(@Param("userId") Long userId, @Param("movieId") long movieId);
+
+    /**
+     * Retrieves a page of a watchlist, most recently added first.
+     * The id of a watchlist item grows with every addition, so it doubles as the added order.
+     *
+     * @param afterId  id of the last item of the previous page, null for the first page
+     * @param pageable only the page size is used, the query always starts at the cursor
+     * @return the items on the page
+     */
+    @Query(WATCHLIST_PAGE_SELECT +
+            "AND (:afterId IS NULL OR u.id < :afterId) " +
+            "ORDER BY u.id DESC")
+    List<WatchlistItemDto> findWatchlistPageByAdded(@Param("userId") Long userId,
+                                                    @Param("watched") Boolean watched,
+                                                    @Param("hasReview") Boolean hasReview,
+                                                    @Param("genre") String genre,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    /**
+     * Retrieves a page of a watchlist, alphabetically on movie title.
+     *
+     * @param afterTitle title of the last item of the previous page
+     * @param afterId    id of the last item of the previous page, null for the first page
+     * @param pageable   only the page size is used, the query always starts at the cursor
+     * @return the items on the page
+     */
+    @Query(WATCHLIST_PAGE_SELECT +
+            "AND (:afterId IS NULL OR m.title > :afterTitle OR (m.title = :afterTitle AND u.id > :afterId)) " +
+            "ORDER BY m.title ASC, u.id ASC")
+    List<WatchlistItemDto> findWatchlistPageByTitle(@Param("userId") Long userId,
+                                                    @Param("watched") Boolean watched,
+                                                    @Param("hasReview") Boolean hasReview,
+                                                    @Param("genre") String genre,
+                                                    @Param("afterTitle") String afterTitle,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    /**
+     * Retrieves a page of a watchlist, highest TMDB rating first.
+     *
+     * @param afterRating rating of the last item of the previous page
+     * @param afterId     id of the last item of the previous page, null for the first page
+     * @param pageable    only the page size is used, the query always starts at the cursor
+     * @return the items on the page
+     */
+    @Query(WATCHLIST_PAGE_SELECT +
+            "AND (:afterId IS NULL OR m.tmdbRating < :afterRating " +
+            "OR (m.tmdbRating = :afterRating AND u.id > :afterId)) " +
+            "ORDER BY m.tmdbRating DESC, u.id ASC")
+    List<WatchlistItemDto> findWatchlistPageByRating(@Param("userId") Long userId,
+                                                     @Param("watched") Boolean watched,
+                                                     @Param("hasReview") Boolean hasReview,
+                                                     @Param("genre") String genre,
+                                                     @Param("afterRating") Double afterRating,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
 }
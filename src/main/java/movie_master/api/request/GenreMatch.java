@@ -0,0 +1,11 @@
+package movie_master.api.request;
+
+/**
+ * How a set of genres is matched against the genres of a movie
+ */
+public enum GenreMatch {
+    // The movie has at least one of the genres
+    ANY,
+    // The movie has every one of the genres
+    ALL
+}
@@ -0,0 +1,13 @@
+package movie_master.api.request;
+
+/**
+ * The orders a list of movies can be sorted in, ties are broken on id
+ */
+public enum MovieSort {
+    // Alphabetically on title
+    TITLE,
+    // Highest TMDB rating first
+    RATING,
+    // Newest release first
+    RELEASE_DATE
+}
@@ -0,0 +1,11 @@
+package movie_master.api.request;
+
+/**
+ * The orders the topics of the forum can be listed in, ties are broken on id
+ */
+public enum TopicSort {
+    // Most recently commented first
+    ACTIVITY,
+    // Newest first
+    CREATED
+}
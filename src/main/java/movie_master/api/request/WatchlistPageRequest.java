@@ -0,0 +1,20 @@
+package movie_master.api.request;
+
+/**
+ * Filters, order and position of a requested watchlist page
+ *
+ * @param sort      order of the items
+ * @param watched   only watched or unwatched items, null for both
+ * @param genre     only movies of this genre, null for all genres
+ * @param hasReview only reviewed or unreviewed items, null for both
+ * @param cursor    cursor of the previous page, null for the first page
+ * @param size      maximum amount of items on the page
+ */
+public record WatchlistPageRequest(
+    WatchlistSort sort,
+    Boolean watched,
+    String genre,
+    Boolean hasReview,
+    String cursor,
+    int size
+) {}
@@ -0,0 +1,13 @@
+package movie_master.api.request;
+
+/**
+ * The orders a watchlist page can be sorted in
+ */
+public enum WatchlistSort {
+    // Most recently added first
+    ADDED,
+    // Alphabetically on movie title
+    TITLE,
+    // Highest TMDB rating first
+    RATING
+}
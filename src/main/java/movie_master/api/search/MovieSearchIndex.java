@@ -0,0 +1,327 @@
+package movie_master.api.search;
+
+import jakarta.annotation.PreDestroy;
+import movie_master.api.exception.InvalidCursorException;
+import movie_master.api.model.Movie;
+import movie_master.api.pagination.KeysetCursor;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Embedded full-text index over the title, description and language of all movies
+ * The index lives in memory and is rebuilt by the movie service on startup, movie writes
+ * through the movie service keep it in sync afterwards
+ * Every word of a query has to match a title or description, either as a whole word or as
+ * the start of one. Title matches rank above description matches
+ */
+@Component
+public class MovieSearchIndex {
+    static final String ID = "id";
+    // Doc values of the id, the tiebreaker when paging through matches with an equal score
+    static final String ID_SORT = "id_sort";
+    static final String TITLE = "title";
+    static final String DESCRIPTION = "description";
+    static final String LANGUAGE = "language";
+
+    private static final Sort BEST_MATCH_FIRST = new Sort(SortField.FIELD_SCORE, new SortField(ID_SORT, SortField.Type.LONG));
+
+    // Fuzzy words have to start with the same letter, which keeps the amount of candidate terms small
+    private static final int FUZZY_PREFIX_LENGTH = 1;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+
+    public MovieSearchIndex() throws IOException {
+        this.indexWriter = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    // Replaces the whole index with the given movies
+    public void rebuild(Collection<Movie> movies) {
+        try {
+            indexWriter.deleteAll();
+            for (Movie movie : movies) {
+                indexWriter.addDocument(toDocument(movie));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Adds a movie to the index, or replaces it when it is indexed already
+    public void index(Movie movie) {
+        try {
+            indexWriter.updateDocument(new Term(ID, String.valueOf(movie.getId())), toDocument(movie));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void remove(long movieId) {
+        try {
+            indexWriter.deleteDocuments(new Term(ID, String.valueOf(movieId)));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Searches the index, best match first
+     *
+     * @param text   the text to search for
+     * @param offset amount of best matches to skip
+     * @param limit  maximum amount of movie ids to return
+     * @return the ids on the requested page and the total amount of matches
+     */
+    public MovieSearchResult search(String text, int offset, int limit) {
+        return search(buildQuery(text), offset, limit);
+    }
+
+    /**
+     * Searches the index like {@link #search}, but lets every word be misspelled by a few letters
+     * Meant as a fallback when the exact search finds nothing
+     */
+    public MovieSearchResult searchFuzzy(String text, int offset, int limit) {
+        return search(buildFuzzyQuery(text), offset, limit);
+    }
+
+    /**
+     * Searches the index, best match first, continuing after the last match of the previous page
+     * Matches are ordered on score and id, so pages stay stable however deep the client pages
+     *
+     * @param text  the text to search for
+     * @param after cursor of the last match of the previous page, null for the first page
+     * @param limit maximum amount of movie ids to return
+     * @return the ids on the page and the cursor of the next page, the total is a lower bound
+     */
+    public MovieSearchResult search(String text, KeysetCursor after, int limit) throws InvalidCursorException {
+        return searchAfter(buildQuery(text), after, limit);
+    }
+
+    // Searches like search(text, after, limit), but lets every word be misspelled by a few letters
+    public MovieSearchResult searchFuzzy(String text, KeysetCursor after, int limit) throws InvalidCursorException {
+        return searchAfter(buildFuzzyQuery(text), after, limit);
+    }
+
+    // Counts the movies matching the text
+    public long count(String text) {
+        return count(buildQuery(text));
+    }
+
+    // Counts the movies matching the text when every word may be misspelled
+    public long countFuzzy(String text) {
+        return count(buildFuzzyQuery(text));
+    }
+
+    private MovieSearchResult search(Query query, int offset, int limit) {
+        if (query == null) {
+            return new MovieSearchResult(List.of(), 0);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, offset + limit);
+                List<Long> movieIds = new ArrayList<>();
+                ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                for (int i = offset; i < scoreDocs.length; i++) {
+                    movieIds.add(Long.parseLong(searcher.storedFields().document(scoreDocs[i].doc).get(ID)));
+                }
+
+                // Top docs only count exactly up to a threshold, count the rest when needed
+                long totalHits = topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                        ? topDocs.totalHits.value
+                        : searcher.count(query);
+                return new MovieSearchResult(movieIds, totalHits);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MovieSearchResult searchAfter(Query query, KeysetCursor after, int limit) throws InvalidCursorException {
+        if (query == null) {
+            return new MovieSearchResult(List.of(), 0);
+        }
+        float afterScore = after == null ? 0 : (float) after.keyAsDouble();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // Score and id decide the order, doc only breaks ties with the movie of the cursor itself.
+                // Lucene requires an existing doc, the highest one skips that movie whichever doc it is in
+                FieldDoc afterDoc = after == null ? null
+                        : new FieldDoc(searcher.getIndexReader().maxDoc() - 1, Float.NaN,
+                                new Object[]{afterScore, after.id()});
+                // Fetch one extra match to know whether there is a next page
+                TopDocs topDocs = searcher.searchAfter(afterDoc, query, limit + 1, BEST_MATCH_FIRST);
+                List<Long> movieIds = new ArrayList<>();
+                KeysetCursor next = null;
+                for (int i = 0; i < Math.min(topDocs.scoreDocs.length, limit); i++) {
+                    Object[] fields = ((FieldDoc) topDocs.scoreDocs[i]).fields;
+                    movieIds.add((Long) fields[1]);
+                    if (topDocs.scoreDocs.length > limit) {
+                        next = KeysetCursor.of((Long) fields[1], fields[0]);
+                    }
+                }
+                return new MovieSearchResult(movieIds, topDocs.totalHits.value, next);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long count(Query query) {
+        if (query == null) {
+            return 0;
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.count(query);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Returns null when the text contains no searchable words
+    private Query buildQuery(String text) {
+        List<String> words = analyze(text);
+        if (words.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String word : words) {
+            BooleanQuery wordQuery = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TITLE, word)), 4f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(TITLE, word)), 2f), BooleanClause.Occur.SHOULD)
+                    .add(new TermQuery(new Term(DESCRIPTION, word)), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(DESCRIPTION, word)), 0.5f), BooleanClause.Occur.SHOULD)
+                    .add(new TermQuery(new Term(LANGUAGE, word)), BooleanClause.Occur.SHOULD)
+                    .build();
+            query.add(wordQuery, BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    /**
+     * Every word has to match a title or description word within a few edits. The edit distances are
+     * looked up in the term dictionary of the index, so no movie has to be compared with the text
+     * Returns null when the text contains no searchable words
+     */
+    private Query buildFuzzyQuery(String text) {
+        List<String> words = analyze(text);
+        if (words.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String word : words) {
+            int maxEdits = maxEdits(word);
+            BooleanQuery wordQuery = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new FuzzyQuery(new Term(TITLE, word), maxEdits, FUZZY_PREFIX_LENGTH), 4f),
+                            BooleanClause.Occur.SHOULD)
+                    .add(new FuzzyQuery(new Term(DESCRIPTION, word), maxEdits, FUZZY_PREFIX_LENGTH),
+                            BooleanClause.Occur.SHOULD)
+                    .build();
+            query.add(wordQuery, BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    // Short words would match almost anything with a typo, so they have to be spelled right
+    static int maxEdits(String word) {
+        if (word.length() < 3) {
+            return 0;
+        }
+        return word.length() < 6 ? 1 : 2;
+    }
+
+    // Splits the text into lowercase words, the same way the indexed fields are split
+    private List<String> analyze(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+
+        try (TokenStream tokenStream = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return words;
+    }
+
+    private static Document toDocument(Movie movie) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(movie.getId()), Field.Store.YES));
+        document.add(new NumericDocValuesField(ID_SORT, movie.getId()));
+        if (movie.getTitle() != null) {
+            document.add(new TextField(TITLE, movie.getTitle(), Field.Store.NO));
+        }
+        if (movie.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, movie.getDescription(), Field.Store.NO));
+        }
+        if (movie.getLanguage() != null) {
+            document.add(new StringField(LANGUAGE, movie.getLanguage().toLowerCase(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+    }
+}
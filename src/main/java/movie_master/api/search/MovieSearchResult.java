@@ -0,0 +1,22 @@
+package movie_master.api.search;
+
+import movie_master.api.pagination.KeysetCursor;
+
+import java.util.List;
+
+/**
+ * Result of a search in the movie index
+ *
+ * @param movieIds  ids of the movies on the requested page, best match first
+ * @param totalHits total amount of movies matching the query
+ * @param next      cursor of the next page, null on the last page or when paging by offset
+ */
+public record MovieSearchResult(
+    List<Long> movieIds,
+    long totalHits,
+    KeysetCursor next
+) {
+    public MovieSearchResult(List<Long> movieIds, long totalHits) {
+        this(movieIds, totalHits, null);
+    }
+}
@@ -0,0 +1,271 @@
+package movie_master.api.search;
+
+import movie_master.api.dto.MovieSuggestionDto;
+import movie_master.api.model.Movie;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory typeahead over movie titles
+ * Titles are normalized (lowercase, without accents and punctuation) and every word of a title
+ * starts a key in a trie, so "godf" suggests "The Godfather". Every trie node keeps the best
+ * rated movies below it, so a lookup only walks the typed prefix and never touches the database
+ * Adding or removing a movie only updates the nodes on the paths of its title
+ */
+@Component
+public class TitleSuggester {
+    // Amount of suggestions kept per node, the maximum a lookup can return
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<MovieSuggestionDto> BEST_FIRST = Comparator
+            .comparingDouble(MovieSuggestionDto::tmdbRating).reversed()
+            .thenComparingLong(MovieSuggestionDto::id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, MovieSuggestionDto> suggestionsById = new HashMap<>();
+    private Node root = new Node();
+
+    /**
+     * A trie node. Children are kept in arrays sorted by character, which takes far less
+     * memory than a map per node
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        // Movies whose key ends at this node
+        private List<MovieSuggestionDto> terminal = List.of();
+        // Best movies of this node and all nodes below it
+        private MovieSuggestionDto[] best = new MovieSuggestionDto[0];
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = new Node();
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private boolean isEmpty() {
+            return keys.length == 0 && terminal.isEmpty();
+        }
+
+        // Adds a movie to the best movies if it rates high enough
+        private void offer(MovieSuggestionDto suggestion) {
+            for (MovieSuggestionDto existing : best) {
+                if (existing.id() == suggestion.id()) {
+                    return;
+                }
+            }
+            if (best.length == MAX_SUGGESTIONS && BEST_FIRST.compare(suggestion, best[best.length - 1]) > 0) {
+                return;
+            }
+            List<MovieSuggestionDto> merged = new ArrayList<>(Arrays.asList(best));
+            merged.add(suggestion);
+            merged.sort(BEST_FIRST);
+            best = merged.subList(0, Math.min(merged.size(), MAX_SUGGESTIONS)).toArray(new MovieSuggestionDto[0]);
+        }
+
+        // Recomputes the best movies from the terminal movies and the best movies of the children
+        private void recompute() {
+            Set<MovieSuggestionDto> candidates = new LinkedHashSet<>(terminal);
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.best));
+            }
+            best = candidates.stream()
+                    .sorted(BEST_FIRST)
+                    .limit(MAX_SUGGESTIONS)
+                    .toArray(MovieSuggestionDto[]::new);
+        }
+    }
+
+    // Replaces all suggestions with the given movies
+    public void rebuild(Collection<Movie> movies) {
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            suggestionsById.clear();
+            movies.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds a movie, or replaces it when it is known already
+    public void add(Movie movie) {
+        lock.writeLock().lock();
+        try {
+            delete(movie.getId());
+            insert(movie);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long movieId) {
+        lock.writeLock().lock();
+        try {
+            delete(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests movies whose title has a word starting with the given prefix, best rated first
+     *
+     * @param prefix what the user has typed so far
+     * @param limit  maximum amount of suggestions, at most {@link #MAX_SUGGESTIONS}
+     * @return the suggestions
+     */
+    public List<MovieSuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return Arrays.stream(node.best).limit(Math.min(limit, MAX_SUGGESTIONS)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(Movie movie) {
+        if (movie.getTitle() == null) {
+            return;
+        }
+        MovieSuggestionDto suggestion = new MovieSuggestionDto(
+                movie.getId(), movie.getTitle(), movie.getPosterPath(), movie.getTmdbRating());
+        suggestionsById.put(movie.getId(), suggestion);
+
+        for (String key : keys(movie.getTitle())) {
+            Node node = root;
+            node.offer(suggestion);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                node.offer(suggestion);
+            }
+            List<MovieSuggestionDto> terminal = new ArrayList<>(node.terminal);
+            terminal.add(suggestion);
+            node.terminal = List.copyOf(terminal);
+        }
+    }
+
+    private void delete(long movieId) {
+        MovieSuggestionDto suggestion = suggestionsById.remove(movieId);
+        if (suggestion == null) {
+            return;
+        }
+
+        for (String key : keys(suggestion.title())) {
+            Node[] path = path(key);
+            if (path == null) {
+                continue;
+            }
+
+            Node end = path[key.length()];
+            end.terminal = end.terminal.stream().filter(existing -> existing.id() != movieId).toList();
+            // Repair the path bottom-up, dropping nodes that lead nowhere anymore
+            for (int i = key.length(); i >= 0; i--) {
+                Node node = path[i];
+                if (i > 0 && node.isEmpty()) {
+                    path[i - 1].removeChild(key.charAt(i - 1));
+                } else {
+                    node.recompute();
+                }
+            }
+        }
+    }
+
+    // The nodes from the root to the end of the key, or null when the key is unknown
+    private Node[] path(String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return null;
+            }
+        }
+        return path;
+    }
+
+    // Every word of the title starts a key, so a title can be found by any of its words
+    private static List<String> keys(String title) {
+        String normalized = normalize(title);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) == ' ') {
+                keys.add(normalized.substring(i + 1));
+            }
+        }
+        return keys;
+    }
+
+    // Lowercase, without accents, words separated by single spaces
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutAccents = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutAccents.toLowerCase()).replaceAll(" ").trim();
+    }
+}
@@ -1,50 +1,110 @@
 package movie_master.api.service;
 
+import jakarta.transaction.Transactional;
 import movie_master.api.dto.Forum.CommentDto;
+import movie_master.api.dto.Forum.CommentPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.TopicNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
+import movie_master.api.live.CommentPostedEvent;
+import movie_master.api.live.ForumLiveHub;
 import movie_master.api.mapper.CommentDtoMapper;
 import movie_master.api.model.Comment;
 import movie_master.api.model.Topic;
 import movie_master.api.model.User;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.repository.CommentRepository;
 import movie_master.api.repository.TopicRepository;
 import movie_master.api.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CommentService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
     private final CommentDtoMapper commentDtoMapper;
+    private final ForumLiveHub forumLiveHub;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CommentService(CommentRepository commentRepository, TopicRepository topicRepository,
-                          UserRepository userRepository, CommentDtoMapper commentDtoMapper) {
+                          UserRepository userRepository, CommentDtoMapper commentDtoMapper,
+                          ForumLiveHub forumLiveHub, ApplicationEventPublisher eventPublisher) {
         this.commentRepository = commentRepository;
         this.topicRepository = topicRepository;
         this.userRepository = userRepository;
         this.commentDtoMapper = commentDtoMapper;
+        this.forumLiveHub = forumLiveHub;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<CommentDto> getCommentsForTopic(Long topicId) throws TopicNotFoundException {
-        Topic topic = topicRepository.findById(topicId).orElseThrow(() -> new TopicNotFoundException(topicId));
-        List<Comment> comments = commentRepository.findAllByTopic(topic);
+    /**
+     * Retrieves a page of the comments of a topic with their author, oldest first, in a single query.
+     * Pages continue after the last comment of the previous page, so long threads are read in constant steps.
+     *
+     * @param topicId id of the topic
+     * @param cursor  cursor of the previous page, null for the first page
+     * @param size    maximum amount of comments on the page
+     * @return the comments on the page and the cursor of the next page
+     */
+    public CommentPageDto getCommentsForTopic(Long topicId, String cursor, int size)
+            throws TopicNotFoundException, InvalidCursorException {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Fetch one comment more than requested to find out whether there is a next page
+        List<CommentDto> comments = commentRepository.findPageByTopic(
+                topicId,
+                after == null ? null : after.keyAsDateTime(),
+                after == null ? null : after.id(),
+                PageRequest.of(0, pageSize + 1));
 
-        return comments.stream()
-                .map(commentDtoMapper::toCommentDto)
-                .collect(Collectors.toList());
+        // Only an empty page needs to find out whether the topic exists
+        if (comments.isEmpty() && !topicRepository.existsById(topicId)) {
+            throw new TopicNotFoundException(topicId);
+        }
+        if (comments.size() <= pageSize) {
+            return new CommentPageDto(comments, null);
+        }
+        List<CommentDto> page = List.copyOf(comments.subList(0, pageSize));
+        CommentDto last = page.get(pageSize - 1);
+        return new CommentPageDto(page, KeysetCursor.of(last.id(), last.creationDate()).encode());
     }
 
+    /**
+     * Places a comment on a topic and updates the comment count and last activity of the topic
+     * in the same transaction. Clients following the topic get the comment once it has been committed
+     */
+    @Transactional
     public CommentDto createComment(String content, Long topicId, Long userId)
             throws UserNotFoundException, TopicNotFoundException {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         Topic topic = topicRepository.findById(topicId).orElseThrow(() -> new TopicNotFoundException(topicId));
-        Comment comment = new Comment(content, topic, user);
-        return commentDtoMapper.toCommentDto(commentRepository.save(comment));
+        Comment comment = commentRepository.save(new Comment(content, topic, user));
+        topicRepository.commentAdded(topicId, comment.getCreatedAt());
+        CommentDto commentDto = commentDtoMapper.toCommentDto(comment);
+        eventPublisher.publishEvent(new CommentPostedEvent(topicId, commentDto));
+        return commentDto;
+    }
+
+    /**
+     * Opens a stream of the comments that are placed on a topic from now on
+     *
+     * @param topicId id of the topic
+     * @return the stream, which sends every comment as a server-sent event
+     */
+    public SseEmitter subscribe(Long topicId) throws TopicNotFoundException {
+        if (!topicRepository.existsById(topicId)) {
+            throw new TopicNotFoundException(topicId);
+        }
+        return forumLiveHub.subscribe(topicId);
     }
 }
\ No newline at end of file
@@ -1,49 +1,156 @@
 package movie_master.api.service;
 
+import movie_master.api.cache.GenreRegistry;
+import movie_master.api.cache.MovieDetailCache;
+import movie_master.api.cache.MovieDetailCache.CachedMovie;
+import movie_master.api.cache.SearchCountCache;
+import movie_master.api.dto.MovieCardDto;
+import movie_master.api.dto.MovieDetailDto;
+import movie_master.api.dto.MovieGenreDto;
+import movie_master.api.dto.MoviePageDto;
+import movie_master.api.dto.MovieSearchPageDto;
 import movie_master.api.exception.GenreNotFoundException;
 import movie_master.api.exception.GenresNotLoadedException;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.model.Genre;
+import movie_master.api.dto.MovieSuggestionDto;
 import movie_master.api.exception.DuplicateMovieException;
 import movie_master.api.model.Movie;
-import movie_master.api.repository.GenreRepository;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.repository.MovieRepository;
+import movie_master.api.request.GenreMatch;
+import movie_master.api.request.MovieSort;
+import movie_master.api.search.MovieSearchIndex;
+import movie_master.api.search.MovieSearchResult;
+import movie_master.api.search.TitleSuggester;
+import movie_master.api.tmdb.CatalogSyncedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class DefaultMovieService implements MovieService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultMovieService.class);
 
     private final int RESULTS_PER_PAGE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
     private final MovieRepository movieRepository;
-    private final GenreRepository genreRepository;
+    private final GenreRegistry genreRegistry;
+    private final MovieSearchIndex movieSearchIndex;
+    private final TitleSuggester titleSuggester;
+    private final SearchCountCache searchCountCache;
+    private final MovieDetailCache movieDetailCache;
 
     public DefaultMovieService(MovieRepository movieRepository, 
-                                GenreRepository genreRepository) {
+                                GenreRegistry genreRegistry,
+                                MovieSearchIndex movieSearchIndex,
+                                TitleSuggester titleSuggester,
+                                SearchCountCache searchCountCache,
+                                MovieDetailCache movieDetailCache) {
         this.movieRepository = movieRepository;
-        this.genreRepository = genreRepository;
+        this.genreRegistry = genreRegistry;
+        this.movieSearchIndex = movieSearchIndex;
+        this.titleSuggester = titleSuggester;
+        this.searchCountCache = searchCountCache;
+        this.movieDetailCache = movieDetailCache;
     }
 
     /**
-     * Retrieves all movies under a given genre
+     * Fills the search index and the title suggestions once the data loader has filled the database.
+     * Movie writes through this service keep both in sync afterwards.
      */
-    public List<Movie> findByGenre(String genreName) throws GenreNotFoundException {
-        List<Genre> genres = genreRepository.findByName(genreName);
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearch() {
+        List<Movie> movies = movieRepository.findAll();
+        movieSearchIndex.rebuild(movies);
+        titleSuggester.rebuild(movies);
+        LOGGER.info("Indexed {} movies", movies.size());
+    }
 
-        // Make sure to throw an error in case the genre is nonexistant
-        if(genres.isEmpty()) {
-            throw new GenreNotFoundException(genreName);
+    /**
+     * Brings the search and the caches up to date after the catalog has been synced with TMDB.
+     * The sync writes many movies at once past this service, so the search is rebuilt as a whole.
+     */
+    @EventListener
+    public void catalogSynced(CatalogSyncedEvent event) {
+        event.movieIds().forEach(movieDetailCache::evict);
+        searchCountCache.invalidateAll();
+        rebuildSearch();
+    }
+
+    /**
+     * Retrieves a page of the movies matching a set of genres, in a single query.
+     * Every movie is returned once, however many of the genres it has.
+     * Pages continue after the last movie of the previous page, so deep pages are as fast as the first.
+     *
+     * @param genreNames names of the genres
+     * @param match      whether a movie needs any or all of the genres
+     * @param sort       order of the movies
+     * @param cursor     cursor of the previous page, null for the first page
+     * @param size       maximum amount of movies on the page
+     * @throws InvalidCursorException when the cursor was not created by this filter
+     */
+    public MoviePageDto findByGenres(Set<String> genreNames, GenreMatch match, MovieSort sort, String cursor, int size)
+            throws GenreNotFoundException, InvalidCursorException {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Make sure to throw an error in case one of the genres is nonexistant
+        Set<Long> genreIds = new HashSet<>();
+        for (String genreName : genreNames) {
+            Genre genre = genreRegistry.findByName(genreName)
+                    .orElseThrow(() -> new GenreNotFoundException(genreName));
+            genreIds.add(genre.getId());
+        }
+        long minGenres = match == GenreMatch.ALL ? genreIds.size() : 1;
+        Long afterId = after == null ? null : after.id();
+
+        // Fetch one movie more than requested to find out whether there is a next page
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<MovieCardDto> movies = switch (sort) {
+            case TITLE -> movieRepository.findByGenresOrderByTitle(genreIds, minGenres,
+                    after == null ? null : after.key(), afterId, limit);
+            case RATING -> movieRepository.findByGenresOrderByRating(genreIds, minGenres,
+                    after == null ? null : after.keyAsDouble(), afterId, limit);
+            case RELEASE_DATE -> movieRepository.findByGenresOrderByReleaseDate(genreIds, minGenres,
+                    after == null || after.key().isEmpty() ? null : new Date(after.keyAsLong()), afterId, limit);
+        };
+
+        if (movies.size() <= pageSize) {
+            return new MoviePageDto(withGenreIds(movies), null);
         }
-        return movieRepository.findAllByGenres_Name(genreName);
+
+        List<MovieCardDto> page = withGenreIds(movies.subList(0, pageSize));
+        MovieCardDto last = page.get(pageSize - 1);
+        KeysetCursor nextCursor = switch (sort) {
+            case TITLE -> KeysetCursor.of(last.id(), last.title());
+            case RATING -> KeysetCursor.of(last.id(), last.tmdbRating());
+            case RELEASE_DATE -> KeysetCursor.of(last.id(),
+                    last.releaseDate() == null ? null : last.releaseDate().getTime());
+        };
+        return new MoviePageDto(page, nextCursor.encode());
     }
 
     /**
-     * Retrieves all genres in the database.
+     * Retrieves all genres, from memory.
      */
     public List<Genre> findAllGenres() throws GenresNotLoadedException {
-        List<Genre> genres = genreRepository.findAll();
+        List<Genre> genres = genreRegistry.getAll();
 
         // In case the database does not contain genres, make sure to throw an error
         if(genres.isEmpty()) {
@@ -52,16 +159,124 @@ public class DefaultMovieService implements MovieService {
         return genres;
     }
 
-    public List<Movie> findByTitleContaining(String title, int page) {
-        return movieRepository.findByTitleContaining(title, PageRequest.of(page, RESULTS_PER_PAGE));
+    /**
+     * Entity tag of the current genres, changes whenever the genres change.
+     */
+    public String getGenresETag() {
+        return genreRegistry.getETag();
+    }
+
+    /**
+     * Reloads the genres into memory after they have been changed.
+     */
+    public void refreshGenres() {
+        genreRegistry.refresh();
+    }
+
+    /**
+     * Searches the title, description and language of all movies in the search index,
+     * best match first. When nothing matches, the title is searched again allowing typos.
+     * Only the movies on the requested page are loaded from the database.
+     */
+    public List<MovieCardDto> findByTitleContaining(String title, int page) {
+        int offset = (int) Math.min((long) page * RESULTS_PER_PAGE, Integer.MAX_VALUE - RESULTS_PER_PAGE);
+        MovieSearchResult result = movieSearchIndex.search(title, offset, RESULTS_PER_PAGE);
+        if (result.totalHits() == 0) {
+            // Nothing matches exactly, the title may be misspelled
+            result = movieSearchIndex.searchFuzzy(title, offset, RESULTS_PER_PAGE);
+        }
+        return findAllInOrder(result.movieIds());
+    }
+
+    /**
+     * Searches movies like {@link #findByTitleContaining}, returning a page together with the
+     * total amount of matches and the cursor of the next page. The total is only counted once
+     * per query for a short while, so paging through a search only costs the page itself.
+     *
+     * @param title  the text to search for
+     * @param cursor cursor of the previous page, null for the first page
+     * @param size   maximum amount of movies on the page
+     * @throws InvalidCursorException when the cursor was not created by this search
+     */
+    public MovieSearchPageDto search(String title, String cursor, int size) throws InvalidCursorException {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        long total = searchCountCache.get(title, false, () -> movieSearchIndex.count(title));
+        boolean fuzzy = total == 0;
+        MovieSearchResult result;
+        if (fuzzy) {
+            // Nothing matches exactly, the title may be misspelled
+            total = searchCountCache.get(title, true, () -> movieSearchIndex.countFuzzy(title));
+            result = movieSearchIndex.searchFuzzy(title, after, pageSize);
+        } else {
+            result = movieSearchIndex.search(title, after, pageSize);
+        }
+
+        String nextCursor = result.next() == null ? null : result.next().encode();
+        return new MovieSearchPageDto(findAllInOrder(result.movieIds()), total, fuzzy, nextCursor);
+    }
+
+    /**
+     * Suggests movies while a title is being typed, best rated first. Served from memory.
+     */
+    public List<MovieSuggestionDto> suggest(String prefix, int limit) {
+        return titleSuggester.suggest(prefix, limit);
+    }
+
+    // Loads the list fields of movies, in the order of the given ids
+    private List<MovieCardDto> findAllInOrder(List<Long> movieIds) {
+        if (movieIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MovieCardDto> moviesById = movieRepository.findCardsByIdIn(movieIds).stream()
+                .collect(Collectors.toMap(MovieCardDto::id, Function.identity()));
+        List<MovieCardDto> movies = movieIds.stream()
+                .map(moviesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return withGenreIds(movies);
+    }
+
+    // Adds the genre ids to movies, with one query for all of them
+    private List<MovieCardDto> withGenreIds(List<MovieCardDto> movies) {
+        if (movies.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Long>> genreIds = findGenreIds(movies.stream().map(MovieCardDto::id).toList());
+        return movies.stream()
+                .map(movie -> movie.withGenreIds(genreIds.getOrDefault(movie.id(), List.of())))
+                .toList();
+    }
+
+    private Map<Long, List<Long>> findGenreIds(Collection<Long> movieIds) {
+        return movieRepository.findGenreIdsByMovieIdIn(movieIds).stream()
+                .collect(Collectors.groupingBy(MovieGenreDto::movieId,
+                        Collectors.mapping(MovieGenreDto::genreId, Collectors.toList())));
     }
 
     public Optional<Movie> findById(Long id) {
         return movieRepository.findById(id);
     }
 
+    /**
+     * Retrieves the details of a movie with their entity tag, from memory when they have been requested recently.
+     */
+    public Optional<CachedMovie> findCachedById(Long id) {
+        return movieDetailCache.get(id, this::findDetailById);
+    }
+
+    private Optional<MovieDetailDto> findDetailById(long id) {
+        return movieRepository.findDetailById(id)
+                .map(movie -> movie.withGenreIds(findGenreIds(List.of(id)).getOrDefault(id, List.of())));
+    }
+
     public void deleteById(Long id) {
         movieRepository.deleteById(id);
+        movieSearchIndex.remove(id);
+        titleSuggester.remove(id);
+        searchCountCache.invalidateAll();
+        movieDetailCache.evict(id);
     }
 
     public Movie save(Movie movie) throws DuplicateMovieException {
@@ -70,10 +285,19 @@ public class DefaultMovieService implements MovieService {
         if (existingMovie.isPresent()) {
             throw new DuplicateMovieException(movie.getTitle());
         }
-        return movieRepository.save(movie);
+        Movie savedMovie = movieRepository.save(movie);
+        movieSearchIndex.index(savedMovie);
+        titleSuggester.add(savedMovie);
+        searchCountCache.invalidateAll();
+        movieDetailCache.evict(savedMovie.getId());
+        return savedMovie;
     }
 
     public int getNumberOfPages(String title) {
-        return (int) Math.ceil((double) this.movieRepository.countByTitleContaining(title) / RESULTS_PER_PAGE);
+        long count = searchCountCache.get(title, false, () -> movieSearchIndex.count(title));
+        if (count == 0) {
+            count = searchCountCache.get(title, true, () -> movieSearchIndex.countFuzzy(title));
+        }
+        return (int) Math.ceil((double) count / RESULTS_PER_PAGE);
     }
 }
@@ -1,8 +1,13 @@
 package movie_master.api.service;
 
+import movie_master.api.cache.UserCache;
+import jakarta.transaction.Transactional;
 import movie_master.api.dto.UserDto;
 import movie_master.api.dto.UserMovie.UserMovieDto;
+import movie_master.api.dto.UserMovie.WatchlistItemDto;
+import movie_master.api.dto.UserMovie.WatchlistPageDto;
 import movie_master.api.exception.*;
+import movie_master.api.jwt.TokenVersionCache;
 import movie_master.api.mapper.UserDtoMapper;
 import movie_master.api.mapper.UserMovieDtoMapper;
 import movie_master.api.model.Movie;
@@ -11,8 +16,12 @@ import movie_master.api.model.User;
 import movie_master.api.model.UserMovie;
 import movie_master.api.model.role.Role;
 import movie_master.api.repository.*;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.request.UpdateUserRequest;
+import movie_master.api.request.WatchlistPageRequest;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -25,10 +34,13 @@ import java.util.stream.Collectors;
 @Service
 public class DefaultUserService implements UserService {
 
+    private static final int MAX_WATCHLIST_PAGE_SIZE = 100;
+
     // Repositories
     private final UserRepository userRepository;
     private final MovieRepository movieRepository;
     private final UserMovieRepository userMovieRepository;
+    private final ReviewRepository reviewRepository;
     private final FriendshipRepository friendshipRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
 
@@ -36,8 +48,11 @@ public class DefaultUserService implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserDtoMapper userDtoMapper;
     private final UserMovieDtoMapper userMovieDtoMapper;
+    private final TokenVersionCache tokenVersionCache;
+    private final UserCache userCache;
 
-    // Service
+    // Services
+    private final MovieRatingService movieRatingService;
     private final EmailService emailService;
 
     @Value("${client.host}")
@@ -46,18 +61,24 @@ public class DefaultUserService implements UserService {
     public DefaultUserService(
             UserRepository userRepository, MovieRepository movieRepository,
             UserMovieRepository userMovieRepository,
+            ReviewRepository reviewRepository,
             FriendshipRepository friendshipRepository,
             PasswordResetTokenRepository passwordResetTokenRepository,
             PasswordEncoder passwordEncoder, UserDtoMapper userDtoMapper, UserMovieDtoMapper userMovieDtoMapper,
+            TokenVersionCache tokenVersionCache, UserCache userCache, MovieRatingService movieRatingService,
             EmailService emailService) {
         this.userRepository = userRepository;
         this.movieRepository = movieRepository;
         this.userMovieRepository = userMovieRepository;
+        this.reviewRepository = reviewRepository;
         this.friendshipRepository = friendshipRepository;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.passwordEncoder = passwordEncoder;
         this.userDtoMapper = userDtoMapper;
         this.userMovieDtoMapper = userMovieDtoMapper;
+        this.tokenVersionCache = tokenVersionCache;
+        this.userCache = userCache;
+        this.movieRatingService = movieRatingService;
         this.emailService = emailService;
     }
 
@@ -105,12 +126,17 @@ public class DefaultUserService implements UserService {
      * @param userId id of the user
      */
     @Override
+    @Transactional
     public void deleteUserById(Long userId) throws UserNotFoundException {
         if (!this.userRepository.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
+        // The reviews are deleted along with the watchlist of the user
+        movieRatingService.reviewsOfUserRemoved(userId);
         friendshipRepository.deleteFriendshipByUser(userId);
         userRepository.deleteById(userId);
+        tokenVersionCache.evict(userId);
+        userCache.evict(userId);
     }
 
     /**
@@ -137,6 +163,52 @@ public class DefaultUserService implements UserService {
         }
     }
 
+    /**
+     * Retrieves a page of the watchlist of a given user. The page is read with a keyset
+     * query from the cursor onwards, so its cost depends on the page size only.
+     *
+     * @param userId      id of the user
+     * @param pageRequest filters, order, cursor and size of the page
+     * @return the items on the page and the cursor of the next page
+     */
+    @Override
+    public WatchlistPageDto getWatchListPage(Long userId, WatchlistPageRequest pageRequest)
+            throws UserNotFoundException, InvalidCursorException {
+        int size = Math.min(Math.max(pageRequest.size(), 1), MAX_WATCHLIST_PAGE_SIZE);
+        KeysetCursor cursor = KeysetCursor.decode(pageRequest.cursor());
+        Long afterId = cursor == null ? null : cursor.id();
+
+        // Fetch one item more than requested to find out whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<WatchlistItemDto> items = switch (pageRequest.sort()) {
+            case ADDED -> userMovieRepository.findWatchlistPageByAdded(userId, pageRequest.watched(),
+                    pageRequest.hasReview(), pageRequest.genre(), afterId, limit);
+            case TITLE -> userMovieRepository.findWatchlistPageByTitle(userId, pageRequest.watched(),
+                    pageRequest.hasReview(), pageRequest.genre(), cursor == null ? null : cursor.key(), afterId, limit);
+            case RATING -> userMovieRepository.findWatchlistPageByRating(userId, pageRequest.watched(),
+                    pageRequest.hasReview(), pageRequest.genre(), cursor == null ? null : cursor.keyAsDouble(),
+                    afterId, limit);
+        };
+
+        // An empty first page can also mean that the user does not exist
+        if (items.isEmpty() && cursor == null && !userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+
+        if (items.size() <= size) {
+            return new WatchlistPageDto(items, null);
+        }
+
+        List<WatchlistItemDto> page = items.subList(0, size);
+        WatchlistItemDto last = page.get(size - 1);
+        KeysetCursor nextCursor = switch (pageRequest.sort()) {
+            case ADDED -> KeysetCursor.of(last.id());
+            case TITLE -> KeysetCursor.of(last.id(), last.title());
+            case RATING -> KeysetCursor.of(last.id(), last.tmdbRating());
+        };
+        return new WatchlistPageDto(List.copyOf(page), nextCursor.encode());
+    }
+
     /**
      * Retrieves a watchlist item related to a specific user and movie
      *
@@ -146,21 +218,13 @@ public class DefaultUserService implements UserService {
      */
     @Override
     public UserMovieDto getWatchListItem(Long userId, Long movieId) throws UserNotFoundException {
-        // Retrieve the user in Optional form
-        Optional<User> user = userRepository.findById(userId);
+        Optional<UserMovie> watchlistItem = userMovieRepository.findByUserIdAndMovieId(userId, movieId);
 
-        // If it does not exist, throw an exception. Otherwise,
-        // return the watchlist.
-        if (user.isPresent()) {
-            return user.get()
-                    .getWatchList()
-                    .stream()
-                    .filter(userMovie -> userMovie.getMovie().getId() == movieId)
-                    .map(userMovieDtoMapper::mapUserMovieToDto)
-                    .findAny().orElse(null);
-        } else {
+        // Only check whether the user exists when the movie is not on the watchlist
+        if (watchlistItem.isEmpty() && !userRepository.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
+        return watchlistItem.map(userMovieDtoMapper::mapUserMovieToDto).orElse(null);
     }
 
     /**
@@ -185,17 +249,15 @@ public class DefaultUserService implements UserService {
             throw new MovieNotFoundException(movieId);
         }
 
-        // Retrieve the entities in concrete form
-        User user = userOpt.get();
-        Movie movie = movieOpt.get();
-
-        // Create the association
-        UserMovie movieAssociation = new UserMovie(user, movie, false);
-        user.addMovieToWatchlist(movieAssociation);
+        // The movie is already on the watchlist
+        Optional<UserMovie> existingAssociation = userMovieRepository.findByUserIdAndMovieId(userId, movieId);
+        if (existingAssociation.isPresent()) {
+            return existingAssociation.get();
+        }
 
-        // Save the newly updated association and return it
-        userRepository.save(user);
-        return movieAssociation;
+        // Create the association and save it, without loading the rest of the watchlist
+        UserMovie movieAssociation = new UserMovie(userOpt.get(), movieOpt.get(), false);
+        return userMovieRepository.save(movieAssociation);
     }
 
     /**
@@ -205,32 +267,24 @@ public class DefaultUserService implements UserService {
      * @param movieId id of the movie
      */
     @Override
+    @Transactional
     public void removeMovieFromWatchlist(Long userId, Long movieId)
             throws UserNotFoundException, UserMovieNotFoundException {
 
-        // Retrieve movie objects
-        Optional<User> userOpt = userRepository.findById(userId);
-
-        // Check whether both entities exist
-        if (userOpt.isEmpty()) {
-            throw new UserNotFoundException(userId);
+        // The review on the watchlist item has to go first, the item itself is removed with a single delete
+        Optional<Double> reviewRating = reviewRepository.findRatingByUserAndMovie(userId, movieId);
+        if (reviewRating.isPresent()) {
+            reviewRepository.deleteByUserAndMovie(userId, movieId);
+            movieRatingService.reviewRemoved(movieId, reviewRating.get());
         }
+        int deleted = userMovieRepository.deleteByUserIdAndMovieId(userId, movieId);
 
-        User user = userOpt.get();
-
-        boolean hasWatchlisted = user.getWatchList()
-                .stream().anyMatch(e -> e.getMovie().getId() == movieId);
-
-        if (!hasWatchlisted) {
+        if (deleted == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new UserNotFoundException(userId);
+            }
             throw new UserMovieNotFoundException(movieId);
         }
-
-        UserMovie userMovie = user.getWatchList().stream()
-        .filter(e -> e.getMovie().getId() == movieId)
-        .collect(Collectors.toList()).get(0);
-        
-        user.getWatchList().remove(userMovie);
-        userMovieRepository.delete(userMovie);
     }
 
     /**
@@ -246,46 +300,43 @@ public class DefaultUserService implements UserService {
     public UserMovie updateWatchItemStatus(Long userId, Long movieId, boolean watched)
             throws UserNotFoundException, UserMovieNotFoundException {
 
-        // Retrieve the user
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
-            throw new UserNotFoundException(userId);
-        }
-        User user = userOpt.get();
+        // Set the new 'watched' value with a single update
+        int updated = userMovieRepository.updateWatchedByUserIdAndMovieId(userId, movieId, watched);
 
-        // Retrieve the watchlistitem using its ID (not the movie id!)
-        Optional<UserMovie> watchlistItemOpt = user.getWatchList()
-                .stream().filter(userMovieOpt -> userMovieOpt.getMovie().getId()
-                        == movieId).findFirst();
-        if (watchlistItemOpt.isEmpty()) {
+        if (updated == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new UserNotFoundException(userId);
+            }
             throw new UserMovieNotFoundException(movieId);
         }
 
-        // Set the new 'watched' value and return the updated UserMovie
-        UserMovie watchlistItem = watchlistItemOpt.get();
-        watchlistItem.setWatched(watched);
-        userRepository.save(user);
-        return watchlistItem;
+        // Return the updated UserMovie
+        return userMovieRepository.findByUserIdAndMovieId(userId, movieId)
+                .orElseThrow(() -> new UserMovieNotFoundException(movieId));
     }
 
     @Override
     public UserDto getUserByUsername(String username) throws UserNotFoundException {
-        Optional<User> user = userRepository.findByUsername(username);
+        UserDto user = userCache.getUserByUsername(username, () -> userRepository.findByUsername(username)
+                .map(userDtoMapper)
+                .orElse(null));
 
-        if (user.isEmpty()) {
+        if (user == null) {
             throw new UserNotFoundException(username);
         }
-        return this.userDtoMapper.apply(user.get());
+        return user;
     }
 
     @Override
     public UserDto getUserByEmail(String email) throws EmailNotFoundException {
-        Optional<User> user = userRepository.findByEmail(email);
+        UserDto user = userCache.getUserByEmail(email, () -> userRepository.findByEmail(email)
+                .map(userDtoMapper)
+                .orElse(null));
 
-        if (user.isEmpty()) {
+        if (user == null) {
             throw new EmailNotFoundException(email);
         }
-        return this.userDtoMapper.apply(user.get());
+        return user;
     }
 
     @Override
@@ -355,10 +406,14 @@ public class DefaultUserService implements UserService {
                     if (updateUserRequest.profilePicture() != null) {
                         user.setProfilePicture(updateUserRequest.profilePicture());
                     }
+                    user.incrementTokenVersion();
                     return userRepository.save(user);
                 })
                 .orElseThrow(UserNotFoundException::new);
 
+        tokenVersionCache.update(updatedUser.getUserId(), updatedUser.getTokenVersion());
+        userCache.evict(updatedUser.getUserId());
+
         return this.userDtoMapper.apply(updatedUser);
     }
 
@@ -372,10 +427,14 @@ public class DefaultUserService implements UserService {
                     } else {
                         user.setRole(Role.ROLE_USER);
                     }
+                    user.incrementTokenVersion();
                     return userRepository.save(user);
                 })
                 .orElseThrow(UserNotFoundException::new);
 
+        tokenVersionCache.update(updatedUser.getUserId(), updatedUser.getTokenVersion());
+        userCache.evict(updatedUser.getUserId());
+
         return this.userDtoMapper.apply(updatedUser);
     }
 
@@ -393,7 +452,10 @@ public class DefaultUserService implements UserService {
 
         User user = userOpt.get();
         user.setBanned(banned);
+        user.incrementTokenVersion();
         userRepository.save(user);
+        tokenVersionCache.update(user.getUserId(), user.getTokenVersion());
+        userCache.evict(user.getUserId());
 
         return user;
     }
@@ -466,9 +528,12 @@ public class DefaultUserService implements UserService {
         String newEncodedPassword = passwordEncoder.encode(newPassword);
 
         user.setPassword(newEncodedPassword);
+        user.incrementTokenVersion();
 
         // save the changes
         userRepository.save(user);
+        tokenVersionCache.update(user.getUserId(), user.getTokenVersion());
+        userCache.evict(user.getUserId());
 
         // remove the used reset password token
         passwordResetTokenRepository.delete(passwordResetToken);
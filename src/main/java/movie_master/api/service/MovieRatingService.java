@@ -0,0 +1,79 @@
+package movie_master.api.service;
+
+import jakarta.transaction.Transactional;
+import movie_master.api.cache.MovieDetailCache;
+import movie_master.api.dto.MovieRatingDto;
+import movie_master.api.repository.MovieRepository;
+import movie_master.api.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the running rating sum and count of movies up to date. Every change is a single
+ * arithmetic update on the movie, so the reviews of a movie never have to be reloaded.
+ */
+@Service
+public class MovieRatingService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MovieRatingService.class);
+
+    private final MovieRepository movieRepository;
+    private final ReviewRepository reviewRepository;
+    private final MovieDetailCache movieDetailCache;
+
+    public MovieRatingService(MovieRepository movieRepository, ReviewRepository reviewRepository,
+                              MovieDetailCache movieDetailCache) {
+        this.movieRepository = movieRepository;
+        this.reviewRepository = reviewRepository;
+        this.movieDetailCache = movieDetailCache;
+    }
+
+    // A review has been placed on a movie
+    public void reviewAdded(long movieId, double rating) {
+        movieRepository.adjustRating(movieId, rating, 1);
+        movieDetailCache.evict(movieId);
+    }
+
+    // The rating of an existing review has changed
+    public void reviewChanged(long movieId, double oldRating, double newRating) {
+        if (oldRating != newRating) {
+            movieRepository.adjustRating(movieId, newRating - oldRating, 0);
+            movieDetailCache.evict(movieId);
+        }
+    }
+
+    // A review has been removed from a movie
+    public void reviewRemoved(long movieId, double rating) {
+        movieRepository.adjustRating(movieId, -rating, -1);
+        movieDetailCache.evict(movieId);
+    }
+
+    /**
+     * Takes the reviews of a user out of the aggregates. Has to be called before the
+     * reviews themselves are deleted.
+     *
+     * @param userId id of the user whose reviews are about to be deleted
+     */
+    @Transactional
+    public void reviewsOfUserRemoved(long userId) {
+        for (MovieRatingDto movieRating : reviewRepository.findRatingsByUser(userId)) {
+            reviewRemoved(movieRating.movieId(), movieRating.rating());
+        }
+    }
+
+    /**
+     * Recomputes the aggregates of all movies from their reviews, correcting any drift.
+     * Runs on startup and on the configured schedule.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${movie-rating.repair-cron:0 0 4 * * *}")
+    public void recomputeAll() {
+        int updated = movieRepository.recomputeRatingAggregates();
+        movieDetailCache.invalidateAll();
+        LOGGER.info("Recomputed rating aggregates of {} movies", updated);
+    }
+}
@@ -1,23 +1,39 @@
 package movie_master.api.service;
 
+import movie_master.api.cache.MovieDetailCache.CachedMovie;
+import movie_master.api.dto.MovieCardDto;
+import movie_master.api.dto.MoviePageDto;
+import movie_master.api.dto.MovieSearchPageDto;
+import movie_master.api.dto.MovieSuggestionDto;
 import movie_master.api.exception.GenreNotFoundException;
 import movie_master.api.exception.GenresNotLoadedException;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.model.Genre;
 import movie_master.api.exception.DuplicateMovieException;
 import movie_master.api.model.Movie;
+import movie_master.api.request.GenreMatch;
+import movie_master.api.request.MovieSort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public interface MovieService {
-    List<Movie> findByTitleContaining(String title, int pageNumber);
-    List<Movie> findByGenre(String genreName) throws GenreNotFoundException;
+    List<MovieCardDto> findByTitleContaining(String title, int pageNumber);
+    MovieSearchPageDto search(String title, String cursor, int size) throws InvalidCursorException;
+    List<MovieSuggestionDto> suggest(String prefix, int limit);
+    MoviePageDto findByGenres(Set<String> genreNames, GenreMatch match, MovieSort sort, String cursor, int size)
+            throws GenreNotFoundException, InvalidCursorException;
     List<Genre> findAllGenres() throws GenresNotLoadedException;
+    String getGenresETag();
+    void refreshGenres();
 
     Optional<Movie> findById(Long id);
 
+    Optional<CachedMovie> findCachedById(Long id);
+
     void deleteById(Long id);
 
     Movie save(Movie movie) throws DuplicateMovieException;
@@ -1,8 +1,11 @@
 package movie_master.api.service;
 
+import jakarta.transaction.Transactional;
+import movie_master.api.cache.UserCache;
 import movie_master.api.dto.ReportDto;
 import movie_master.api.exception.ReportNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
+import movie_master.api.jwt.TokenVersionCache;
 import movie_master.api.mapper.ReportDtoMapper;
 import movie_master.api.model.Report;
 import movie_master.api.model.User;
@@ -26,6 +29,9 @@ public class ReportService {
     private final UserRepository userRepository;
     private final ReviewRepository reviewRepository;
     private final ReportDtoMapper reportDtoMapper;
+    private final TokenVersionCache tokenVersionCache;
+    private final UserCache userCache;
+    private final MovieRatingService movieRatingService;
 
     /**
      * Constructs a new ReportService with the specified repositories and DTO mapper.
@@ -33,15 +39,22 @@ public class ReportService {
      * @param reportRepository the repository for report data access
      * @param userRepository the repository for user data access
      * @param reportDtoMapper the mapper for converting reports to ReportDto objects
+     * @param tokenVersionCache the cache that is updated when a banned user's jwts become invalid
+     * @param userCache the cache from which a banned user is evicted
+     * @param movieRatingService the service that takes the deleted reviews of a banned user out of the movie ratings
      */
     public ReportService(
         ReportRepository reportRepository, UserRepository userRepository, ReviewRepository reviewRepository,
-        ReportDtoMapper reportDtoMapper
+        ReportDtoMapper reportDtoMapper, TokenVersionCache tokenVersionCache, UserCache userCache,
+        MovieRatingService movieRatingService
     ) {
         this.reportRepository = reportRepository;
         this.userRepository = userRepository;
         this.reviewRepository = reviewRepository;
         this.reportDtoMapper = reportDtoMapper;
+        this.tokenVersionCache = tokenVersionCache;
+        this.userCache = userCache;
+        this.movieRatingService = movieRatingService;
     }
 
     /**
@@ -94,6 +107,7 @@ public class ReportService {
      * @param banUser a boolean indicating whether to ban the user associated with the report
      * @throws ReportNotFoundException if the report with the specified ID cannot be found
      */
+    @Transactional
     public void deleteReport(long reportId, boolean banUser) throws ReportNotFoundException {
         if (banUser) {
             Optional<Report> foundReport = reportRepository.findById(reportId);
@@ -101,7 +115,11 @@ public class ReportService {
             Report report = foundReport.get();
             User userToBan = report.getReportedUser();
             userToBan.setBanned(true);
+            userToBan.incrementTokenVersion();
             userRepository.save(userToBan);
+            tokenVersionCache.update(userToBan.getUserId(), userToBan.getTokenVersion());
+            userCache.evict(userToBan.getUserId());
+            movieRatingService.reviewsOfUserRemoved(userToBan.getUserId());
             reviewRepository.deleteByUser(userToBan.getUserId());
             reportRepository.deleteByUser(userToBan.getUserId());
         } else {
@@ -2,25 +2,28 @@ package movie_master.api.service;
 
 import jakarta.transaction.Transactional;
 import movie_master.api.dto.ReviewDto;
+import movie_master.api.dto.ReviewPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.MovieNotFoundException;
 import movie_master.api.exception.MovieNotInWatchlistException;
 import movie_master.api.exception.UserNotFoundException;
 import movie_master.api.mapper.ReviewDtoMapper;
-import movie_master.api.model.Movie;
 import movie_master.api.model.Review;
-import movie_master.api.model.User;
 import movie_master.api.model.UserMovie;
-import movie_master.api.repository.MovieRepository;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.repository.ReviewRepository;
 import movie_master.api.repository.UserMovieRepository;
 import movie_master.api.repository.UserRepository;
 import movie_master.api.request.PostReviewRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 
 /**
  * Review service
@@ -28,75 +31,89 @@ import java.util.Set;
 @Service
 public class ReviewService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final UserMovieRepository userMovieRepository;
-    private final MovieRepository movieRepository;
+    private final MovieRatingService movieRatingService;
     private final ReviewDtoMapper mapper;
 
     public ReviewService(
         ReviewRepository reviewRepository,
         UserRepository userRepository,
         UserMovieRepository userMovieRepository,
-        MovieRepository movieRepository,
+        MovieRatingService movieRatingService,
         ReviewDtoMapper mapper
     ) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.userMovieRepository = userMovieRepository;
-        this.movieRepository = movieRepository;
+        this.movieRatingService = movieRatingService;
         this.mapper = mapper;
     }
 
-    // Retrieve all reviews
-    public List<ReviewDto> findAll() {
-        return reviewRepository.findAll()
-            .stream()
-            .map(mapper::mapToDTO)
-            .toList();
+    // Retrieve a page of the latest reviews
+    public ReviewPageDto findLatest(String cursor, int size) throws InvalidCursorException {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Fetch one review more than requested to find out whether there is a next page
+        List<ReviewDto> reviews = reviewRepository.findLatest(
+            after == null ? null : after.keyAsDateTime(),
+            after == null ? null : after.id(),
+            PageRequest.of(0, pageSize + 1)
+        );
+        return toPage(reviews, pageSize);
     }
 
-    // Retrieve a certain amount of reviews
+    // Retrieve a certain amount of the latest reviews
     public List<ReviewDto> findByAmount(int maxAmount) {
-        return reviewRepository.findAll()
-            .stream()
-            .limit(maxAmount)
-            .map(mapper::mapToDTO)
-            .toList();
+        if (maxAmount < 1) {
+            return List.of();
+        }
+        return reviewRepository.findLatest(null, null, PageRequest.of(0, Math.min(maxAmount, MAX_PAGE_SIZE)));
+    }
+
+    // Retrieve a page of the latest reviews of a movie
+    public ReviewPageDto findByMovie(long movieId, String cursor, int size) throws InvalidCursorException {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        List<ReviewDto> reviews = reviewRepository.findLatestByMovie(
+            movieId,
+            after == null ? null : after.keyAsDateTime(),
+            after == null ? null : after.id(),
+            PageRequest.of(0, pageSize + 1)
+        );
+        return toPage(reviews, pageSize);
     }
 
-    // Retrieve a list of reviews by movie
-    public List<ReviewDto> findByMovie(long id) {
-        return userMovieRepository
-            .findReviewsByMovieId(id)
-            .stream()
-            .filter(Objects::nonNull)
-            .map(mapper::mapToDTO)
-            .toList();
+    private ReviewPageDto toPage(List<ReviewDto> reviews, int pageSize) {
+        if (reviews.size() <= pageSize) {
+            return new ReviewPageDto(reviews, null);
+        }
+        List<ReviewDto> page = reviews.subList(0, pageSize);
+        ReviewDto last = page.get(pageSize - 1);
+        return new ReviewPageDto(List.copyOf(page), KeysetCursor.of(last.id(), last.reviewDate()).encode());
     }
 
     // Create a review
+    @Transactional
     public ReviewDto postReview(PostReviewRequest reviewRequest)
             throws UserNotFoundException, MovieNotInWatchlistException, MovieNotFoundException {
 
-        Optional<User> foundUser = userRepository.findById(reviewRequest.userId());
+        // Get the movie from the watchlist that you want to place a review on
+        Optional<UserMovie> userMovie = userMovieRepository
+            .findByUserIdAndMovieId(reviewRequest.userId(), reviewRequest.movieId());
 
-        // Throw an exception if the user has not been found
-        if (foundUser.isEmpty()) {
-            throw new UserNotFoundException(reviewRequest.userId());
-        }
-
-        User user = foundUser.get();
-        // Get the watchlist of the found user
-        Set<UserMovie> watchlist = user.getWatchList();
-
-        // Get the movie from your watchlist that you want to place a review on
-        Optional<UserMovie> userMovie = watchlist.stream()
-            .filter(item -> item.getMovie().getId() == reviewRequest.movieId())
-            .findFirst();
-
-        // Throw an exception if the movie that you want to place a review on has not been found
         if (userMovie.isEmpty()) {
+            // Throw an exception if the user has not been found
+            if (!userRepository.existsById(reviewRequest.userId())) {
+                throw new UserNotFoundException(reviewRequest.userId());
+            }
+            // Throw an exception if the movie that you want to place a review on has not been found
             throw new MovieNotInWatchlistException(reviewRequest.movieId(), reviewRequest.userId());
         }
         UserMovie foundUserMovie = userMovie.get();
@@ -109,9 +126,11 @@ public class ReviewService {
                 reviewRequest.rating(),
                 reviewRequest.comment()
             );
+            movieRatingService.reviewAdded(reviewRequest.movieId(), reviewRequest.rating());
         } else {
             // Else update existing
             reviewToStore = foundUserMovie.getReview();
+            movieRatingService.reviewChanged(reviewRequest.movieId(), reviewToStore.getRating(), reviewRequest.rating());
             reviewToStore.setRating(reviewRequest.rating());
             reviewToStore.setComment(reviewRequest.comment());
         }
@@ -119,7 +138,6 @@ public class ReviewService {
         Review storedReview = reviewRepository.save(reviewToStore);
         foundUserMovie.setReview(storedReview);
         userMovieRepository.save(foundUserMovie);
-        updateMovieAverageRating(reviewRequest.movieId());
 
         return mapper.mapToDTO(storedReview);
     }
@@ -137,20 +155,15 @@ public class ReviewService {
 
         // Delete the review
         reviewRepository.deleteById(reviewId);
-        updateMovieAverageRating(review.getUserMovie().getMovie().getId());
+        movieRatingService.reviewRemoved(userMovie.getMovie().getId(), review.getRating());
     }
 
-    private void updateMovieAverageRating(long movieId) throws MovieNotFoundException {
-        List<Review> reviews = userMovieRepository.findReviewsByMovieId(movieId);
-        Movie movie = movieRepository.findById(movieId).orElseThrow(() -> new MovieNotFoundException(movieId));
-
-        double avgRating = reviews.stream()
-                .filter(Objects::nonNull)
-                .mapToDouble(Review::getRating)
-                .average()
-                .orElse(Double.NaN);
-
-        movie.setMmAvgRating(Double.isNaN(avgRating) ? null : avgRating);
-        movieRepository.save(movie);
+    /**
+     * Fills in the movie id of reviews that were placed before it was kept on the review, on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMovieIds() {
+        int updated = reviewRepository.backfillMovieIds();
+        LOGGER.info("Filled in the movie id of {} reviews", updated);
     }
 }
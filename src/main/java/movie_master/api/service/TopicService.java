@@ -1,46 +1,119 @@
 package movie_master.api.service;
 
 import movie_master.api.dto.Forum.TopicDto;
+import movie_master.api.dto.Forum.TopicPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.TopicNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
 import movie_master.api.mapper.TopicDtoMapper;
 import movie_master.api.model.Topic;
 import movie_master.api.model.User;
+import movie_master.api.pagination.KeysetCursor;
+import movie_master.api.ranking.HotTopicRanking;
 import movie_master.api.repository.TopicRepository;
 import movie_master.api.repository.UserRepository;
+import movie_master.api.request.TopicSort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class TopicService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(TopicService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
     private final TopicDtoMapper topicDtoMapper;
+    private final HotTopicRanking hotTopicRanking;
 
-    public TopicService(TopicRepository topicRepository, UserRepository userRepository, TopicDtoMapper topicDtoMapper) {
+    public TopicService(TopicRepository topicRepository, UserRepository userRepository, TopicDtoMapper topicDtoMapper,
+                        HotTopicRanking hotTopicRanking) {
         this.topicRepository = topicRepository;
         this.userRepository = userRepository;
         this.topicDtoMapper = topicDtoMapper;
+        this.hotTopicRanking = hotTopicRanking;
+    }
+
+    /**
+     * Retrieves a page of topics with their author and comment count, in a single query.
+     * Pages continue after the last topic of the previous page, so deep pages are as fast as the first.
+     *
+     * @param sort   whether the most recently active or the newest topics come first
+     * @param cursor cursor of the previous page, null for the first page
+     * @param size   maximum amount of topics on the page
+     * @return the topics on the page and the cursor of the next page
+     */
+    public TopicPageDto getTopics(TopicSort sort, String cursor, int size) throws InvalidCursorException {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        LocalDateTime afterAt = after == null ? null : after.keyAsDateTime();
+        Long afterId = after == null ? null : after.id();
+
+        // Fetch one topic more than requested to find out whether there is a next page
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<TopicDto> topics = switch (sort) {
+            case ACTIVITY -> topicRepository.findPageByActivity(afterAt, afterId, limit);
+            case CREATED -> topicRepository.findPageByCreation(afterAt, afterId, limit);
+        };
+        if (topics.size() <= pageSize) {
+            return new TopicPageDto(topics, null);
+        }
+
+        List<TopicDto> page = List.copyOf(topics.subList(0, pageSize));
+        TopicDto last = page.get(pageSize - 1);
+        LocalDateTime key = sort == TopicSort.ACTIVITY ? last.lastActivityAt() : last.creationDate();
+        return new TopicPageDto(page, KeysetCursor.of(last.id(), key).encode());
     }
 
-    public List<TopicDto> getAllTopics() {
-        List<Topic> topics = topicRepository.findAll();
-        return topics.stream()
-                .map(topicDtoMapper::toTopicDto)
-                .collect(Collectors.toList());
+    /**
+     * Retrieves the topics with the most recent activity, where every comment counts for less as it gets older.
+     * The ranking is kept in memory, so only the summaries of the listed topics are queried.
+     *
+     * @param limit maximum amount of topics
+     * @return the hottest topics, hottest first
+     */
+    public List<TopicDto> getHotTopics(int limit) {
+        List<Long> topicIds = hotTopicRanking.top(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+        if (topicIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, TopicDto> topics = topicRepository.findSummariesByIdIn(topicIds).stream()
+                .collect(Collectors.toMap(TopicDto::id, Function.identity()));
+        return topicIds.stream().map(topics::get).filter(Objects::nonNull).toList();
     }
 
     public TopicDto getTopicById(Long topicId) throws TopicNotFoundException {
-        Topic topic = topicRepository.findById(topicId).orElseThrow(() -> new TopicNotFoundException(topicId));
-        return topicDtoMapper.toTopicDto(topic);
+        return topicRepository.findSummaryById(topicId).orElseThrow(() -> new TopicNotFoundException(topicId));
     }
 
     public TopicDto createTopic(String title, String description, Long userId) throws UserNotFoundException {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        Topic topic = new Topic(title, description, user);
-        return topicDtoMapper.toTopicDto(topicRepository.save(topic));
+        Topic topic = topicRepository.save(new Topic(title, description, user));
+        hotTopicRanking.topicCreated(topic.getTopicId(), topic.getCreatedAt());
+        return topicDtoMapper.toTopicDto(topic);
+    }
+
+    /**
+     * Recomputes the comment count and last activity of all topics on startup, which also fills
+     * them in for topics that were created before they were kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recomputeCommentAggregates() {
+        int updated = topicRepository.recomputeCommentAggregates();
+        LOGGER.info("Recomputed the comment aggregates of {} topics", updated);
     }
 }
@@ -2,12 +2,14 @@ package movie_master.api.service;
 
 import movie_master.api.dto.UserDto;
 import movie_master.api.dto.UserMovie.UserMovieDto;
+import movie_master.api.dto.UserMovie.WatchlistPageDto;
 import movie_master.api.exception.*;
 import movie_master.api.model.User;
 import movie_master.api.model.UserMovie;
 import movie_master.api.model.role.Role;
 import movie_master.api.request.RegisterUserRequest;
 import movie_master.api.request.UpdateUserRequest;
+import movie_master.api.request.WatchlistPageRequest;
 
 import java.util.List;
 import java.util.Set;
@@ -23,6 +25,7 @@ public interface UserService {
     void deleteUserById(Long userId) throws UserNotFoundException;
     User updateUserBannedStatus(Long userId, boolean banned) throws UserNotFoundException;
     Set<UserMovieDto> getWatchList(Long userId) throws UserNotFoundException;
+    WatchlistPageDto getWatchListPage(Long userId, WatchlistPageRequest pageRequest) throws UserNotFoundException, InvalidCursorException;
     UserMovieDto getWatchListItem(Long userId, Long movieId) throws UserNotFoundException;
     User findById(Long userId) throws UserNotFoundException;
     List<UserDto> getAllUsers();
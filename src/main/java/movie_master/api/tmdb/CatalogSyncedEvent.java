@@ -0,0 +1,10 @@
+package movie_master.api.tmdb;
+
+import java.util.Collection;
+
+/**
+ * Published after the catalog has been synced with TMDB
+ *
+ * @param movieIds ids of the existing movies that have been updated
+ */
+public record CatalogSyncedEvent(Collection<Long> movieIds) {}
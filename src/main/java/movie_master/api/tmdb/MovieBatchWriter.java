@@ -0,0 +1,60 @@
+package movie_master.api.tmdb;
+
+import movie_master.api.model.Movie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Collects movies that are read from TMDB by several threads and writes them in batches
+ * Movies move between pages while TMDB is being read, so a movie that comes twice is only written once
+ */
+class MovieBatchWriter {
+    private final Consumer<Collection<Movie>> writer;
+    private final int batchSize;
+    private final Set<Long> tmdbIds = new LinkedHashSet<>();
+    private List<Movie> batch = new ArrayList<>();
+
+    MovieBatchWriter(Consumer<Collection<Movie>> writer, int batchSize) {
+        this.writer = writer;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    void add(Movie movie) {
+        List<Movie> full;
+        synchronized (this) {
+            if (!tmdbIds.add(movie.getTmdbId())) {
+                return;
+            }
+            batch.add(movie);
+            if (batch.size() < batchSize) {
+                return;
+            }
+            full = batch;
+            batch = new ArrayList<>();
+        }
+        // Written outside the lock, so the other threads keep reading meanwhile
+        writer.accept(full);
+    }
+
+    // Writes the movies of the last, partial batch
+    void flush() {
+        List<Movie> rest;
+        synchronized (this) {
+            rest = batch;
+            batch = new ArrayList<>();
+        }
+        if (!rest.isEmpty()) {
+            writer.accept(rest);
+        }
+    }
+
+    // TMDB ids of all distinct movies added, in the order they were added
+    synchronized List<Long> getTmdbIds() {
+        return List.copyOf(tmdbIds);
+    }
+}
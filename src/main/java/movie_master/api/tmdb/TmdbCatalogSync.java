@@ -0,0 +1,202 @@
+package movie_master.api.tmdb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import movie_master.api.cache.GenreRegistry;
+import movie_master.api.model.Genre;
+import movie_master.api.model.SyncState;
+import movie_master.api.repository.MovieBulkRepository;
+import movie_master.api.repository.MovieRepository;
+import movie_master.api.repository.SyncStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Keeps the catalog up to date with TMDB after the initial import
+ * Every run reads the changes feed of TMDB since the previous run and updates the movies of the
+ * catalog that have changed, along with the genres. New releases are imported as well
+ * The job runs on one node at a time, the others skip the run while the lock is held
+ */
+@Component
+public class TmdbCatalogSync {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TmdbCatalogSync.class);
+    static final String SYNC_NAME = "tmdb-catalog";
+    private static final String NOW_PLAYING = "/movie/now_playing?language=en-US";
+    // TMDB returns the changes of at most 14 days per request
+    private static final int MAX_CHANGES_DAYS = 14;
+
+    private final TmdbClient tmdbClient;
+    private final TmdbMovieImporter tmdbMovieImporter;
+    private final GenreRegistry genreRegistry;
+    private final MovieRepository movieRepository;
+    private final MovieBulkRepository movieBulkRepository;
+    private final SyncStateRepository syncStateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int concurrency;
+    private final int batchSize;
+    private final int newReleasePages;
+    private final Duration lockDuration;
+    private final Clock clock;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    public TmdbCatalogSync(TmdbClient tmdbClient, TmdbMovieImporter tmdbMovieImporter, GenreRegistry genreRegistry,
+                           MovieRepository movieRepository, MovieBulkRepository movieBulkRepository,
+                           SyncStateRepository syncStateRepository, ApplicationEventPublisher eventPublisher,
+                           @Value("${tmdb.import.concurrency:4}") int concurrency,
+                           @Value("${tmdb.import.batch-size:500}") int batchSize,
+                           @Value("${tmdb.sync.new-release-pages:1}") int newReleasePages,
+                           @Value("${tmdb.sync.lock-duration:PT30M}") Duration lockDuration) {
+        this(tmdbClient, tmdbMovieImporter, genreRegistry, movieRepository, movieBulkRepository, syncStateRepository,
+                eventPublisher, concurrency, batchSize, newReleasePages, lockDuration, Clock.systemDefaultZone());
+    }
+
+    TmdbCatalogSync(TmdbClient tmdbClient, TmdbMovieImporter tmdbMovieImporter, GenreRegistry genreRegistry,
+                    MovieRepository movieRepository, MovieBulkRepository movieBulkRepository,
+                    SyncStateRepository syncStateRepository, ApplicationEventPublisher eventPublisher,
+                    int concurrency, int batchSize, int newReleasePages, Duration lockDuration, Clock clock) {
+        this.tmdbClient = tmdbClient;
+        this.tmdbMovieImporter = tmdbMovieImporter;
+        this.genreRegistry = genreRegistry;
+        this.movieRepository = movieRepository;
+        this.movieBulkRepository = movieBulkRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.eventPublisher = eventPublisher;
+        this.concurrency = Math.max(concurrency, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.newReleasePages = newReleasePages;
+        this.lockDuration = lockDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Syncs the catalog with the changes of TMDB since the previous run
+     * The first run only records the current time, the initial import is up to date already
+     * A failed run is retried from the same point on the next run
+     */
+    @Scheduled(cron = "${tmdb.sync.cron:0 30 * * * *}")
+    public void sync() {
+        LocalDateTime startedAt = LocalDateTime.now(clock);
+        syncStateRepository.createIfAbsent(SYNC_NAME);
+        if (syncStateRepository.tryLock(SYNC_NAME, nodeId, startedAt, startedAt.plus(lockDuration)) == 0) {
+            LOGGER.debug("Skipping the TMDB sync, another node is running it");
+            return;
+        }
+
+        try {
+            Optional<LocalDateTime> highWaterMark = syncStateRepository.findById(SYNC_NAME)
+                    .map(SyncState::getHighWaterMark);
+            if (highWaterMark.isPresent()) {
+                syncSince(highWaterMark.get().toLocalDate(), startedAt.toLocalDate());
+            }
+            // Changes made while this run was busy are picked up by the next one
+            syncStateRepository.updateHighWaterMark(SYNC_NAME, startedAt);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not sync the catalog with TMDB, retrying on the next run", e);
+        } finally {
+            syncStateRepository.unlock(SYNC_NAME, nodeId);
+        }
+    }
+
+    private void syncSince(LocalDate from, LocalDate until) throws IOException {
+        syncGenres();
+
+        Set<Long> changedIds = new LinkedHashSet<>();
+        for (LocalDate start = from; !start.isAfter(until); start = start.plusDays(MAX_CHANGES_DAYS)) {
+            LocalDate end = start.plusDays(MAX_CHANGES_DAYS - 1);
+            changedIds.addAll(fetchChangedIds(start, end.isAfter(until) ? until : end));
+        }
+
+        // The feed covers all of TMDB, only the movies in the catalog are updated
+        List<Long> catalogTmdbIds = inBatches(List.copyOf(changedIds), movieRepository::findTmdbIdsByTmdbIdIn);
+        List<Long> updatedIds = inBatches(updateMovies(catalogTmdbIds), movieRepository::findIdsByTmdbIdIn);
+        int newReleases = tmdbMovieImporter.importList(NOW_PLAYING, newReleasePages);
+
+        eventPublisher.publishEvent(new CatalogSyncedEvent(updatedIds));
+        LOGGER.info("Synced {} changed movies and {} new releases from TMDB", updatedIds.size(), newReleases);
+    }
+
+    private List<Long> inBatches(List<Long> ids, Function<List<Long>, List<Long>> query) {
+        List<Long> results = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            results.addAll(query.apply(ids.subList(i, Math.min(i + batchSize, ids.size()))));
+        }
+        return results;
+    }
+
+    private void syncGenres() throws IOException {
+        List<Genre> genres = new ArrayList<>();
+        tmdbClient.stream("/genre/movie/list?language=en", "genres", Genre.class, genres::add);
+        movieBulkRepository.upsertGenres(genres);
+        genreRegistry.refresh();
+    }
+
+    private List<Long> fetchChangedIds(LocalDate start, LocalDate end) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        int totalPages = 1;
+        for (int page = 1; page <= totalPages; page++) {
+            JsonNode changes = tmdbClient.get("/movie/changes?start_date=%s&end_date=%s&page=%d"
+                    .formatted(start, end, page));
+            for (JsonNode change : changes.path("results")) {
+                ids.add(change.path("id").asLong());
+            }
+            totalPages = changes.path("total_pages").asInt(1);
+        }
+        return ids;
+    }
+
+    // Fetches the details of the movies concurrently and writes them in batches, returns the updated TMDB ids
+    private List<Long> updateMovies(List<Long> tmdbIds) throws IOException {
+        if (tmdbIds.isEmpty()) {
+            return List.of();
+        }
+
+        MovieBatchWriter writer = new MovieBatchWriter(movieBulkRepository::upsertAll, batchSize);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, tmdbIds.size()));
+        try {
+            List<Future<?>> fetches = new ArrayList<>();
+            for (long tmdbId : tmdbIds) {
+                // Movies removed from TMDB are kept, reviews may refer to them. Only the movie asked for is written
+                fetches.add(pool.submit(() -> {
+                    tmdbClient.find("/movie/%d?language=en-US".formatted(tmdbId), TmdbMovie.class)
+                            .filter(movie -> movie.id() == tmdbId)
+                            .ifPresent(movie -> writer.add(tmdbMovieImporter.toMovie(movie)));
+                    return null;
+                }));
+            }
+            for (Future<?> fetch : fetches) {
+                fetch.get();
+            }
+            writer.flush();
+            return writer.getTmdbIds();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while syncing movies from TMDB", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
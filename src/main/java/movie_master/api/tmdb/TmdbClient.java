@@ -0,0 +1,166 @@
+package movie_master.api.tmdb;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Client of the TMDB api, shared by everything that reads from TMDB
+ * Requests are spread out to stay below the configured rate, requests that are rate limited
+ * anyway are retried after the time TMDB asks for
+ */
+@Component
+public class TmdbClient {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int NOT_FOUND = 404;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String apiKey;
+    private final long requestIntervalNanos;
+    private long nextRequestAt = System.nanoTime();
+
+    public TmdbClient(@Value("${tmdb.base-url:https://api.themoviedb.org/3}") String baseUrl,
+                      @Value("${tmdb.api-key}") String apiKey,
+                      @Value("${tmdb.requests-per-second:40}") int requestsPerSecond) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.requestIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(requestsPerSecond, 1);
+    }
+
+    /**
+     * Requests a resource of the api
+     *
+     * @param path path and query of the resource, e.g. /movie/top_rated?page=1
+     * @return the response body
+     * @throws IOException when TMDB can't be reached or doesn't respond with success
+     */
+    public JsonNode get(String path) throws IOException {
+        return execute(path, parser -> parser.<JsonNode>readValueAsTree())
+                .orElseThrow(() -> new IOException("TMDB has no resource " + path));
+    }
+
+    /**
+     * Requests a resource of the api that may not exist, like a movie that has been removed from TMDB
+     *
+     * @param path path and query of the resource, e.g. /movie/278
+     * @param type type to read the response body into
+     * @return the response body, empty when TMDB responds 404
+     * @throws IOException when TMDB can't be reached or doesn't respond with success
+     */
+    public <T> Optional<T> find(String path, Class<T> type) throws IOException {
+        return execute(path, parser -> parser.readValueAs(type));
+    }
+
+    /**
+     * Requests a resource of the api and hands the items of one of its arrays to the consumer
+     * while the response is being read. Only one item is in memory at a time, however big the response
+     *
+     * @param path  path and query of the resource, e.g. /movie/top_rated?page=1
+     * @param array name of the array field of the response, e.g. results
+     * @param type  type to read the items into
+     * @param items consumer of the items, in the order of the response
+     * @throws IOException when TMDB can't be reached or doesn't respond with success
+     */
+    public <T> void stream(String path, String array, Class<T> type, Consumer<? super T> items) throws IOException {
+        execute(path, parser -> {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && field.equals(array)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        items.accept(parser.readValueAs(type));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return true;
+        }).orElseThrow(() -> new IOException("TMDB has no resource " + path));
+    }
+
+    // Reads the body of a successful response straight from the connection, empty when TMDB responds 404
+    private <T> Optional<T> execute(String path, BodyReader<T> reader) throws IOException {
+        Request request = new Request.Builder()
+                .url(baseUrl + path)
+                .get()
+                .addHeader("accept", "application/json")
+                .addHeader("Authorization", "Bearer %s".formatted(apiKey))
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            awaitTurn();
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (response.code() == TOO_MANY_REQUESTS && attempt < MAX_ATTEMPTS) {
+                    sleep(TimeUnit.SECONDS.toNanos(retryAfterSeconds(response)));
+                    continue;
+                }
+                if (response.code() == NOT_FOUND) {
+                    return Optional.empty();
+                }
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    throw new IOException("TMDB responded %d to %s".formatted(response.code(), path));
+                }
+                try (JsonParser parser = objectMapper.createParser(body.byteStream())) {
+                    return Optional.ofNullable(reader.read(parser));
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    // Waits until the next request fits within the rate, requests of concurrent threads queue up
+    private void awaitTurn() throws InterruptedIOException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long requestAt = Math.max(now, nextRequestAt);
+            nextRequestAt = requestAt + requestIntervalNanos;
+            wait = requestAt - now;
+        }
+        sleep(wait);
+    }
+
+    private static long retryAfterSeconds(Response response) {
+        try {
+            return Math.max(Long.parseLong(response.header("Retry-After", "1")), 1);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for TMDB");
+        }
+    }
+}
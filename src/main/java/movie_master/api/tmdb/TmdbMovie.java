@@ -0,0 +1,26 @@
+package movie_master.api.tmdb;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A movie as TMDB returns it, either as an item of a list or as the details of a single movie
+ * Lists refer to the genres by id, the details of a movie list them as objects
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TmdbMovie(long id,
+                        String title,
+                        String overview,
+                        @JsonProperty("original_language") String originalLanguage,
+                        @JsonProperty("release_date") Date releaseDate,
+                        @JsonProperty("poster_path") String posterPath,
+                        @JsonProperty("vote_average") double voteAverage,
+                        @JsonProperty("genre_ids") List<Long> genreIds,
+                        List<GenreRef> genres) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record GenreRef(long id) {}
+}
@@ -0,0 +1,123 @@
+package movie_master.api.tmdb;
+
+import movie_master.api.cache.GenreRegistry;
+import movie_master.api.model.Movie;
+import movie_master.api.repository.MovieBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports lists of movies from TMDB, like the top rated movies
+ * Pages are fetched concurrently by a bounded pool, the TMDB client keeps the requests within
+ * the rate limit. Every page is decoded movie by movie while it is being received, and the movies
+ * go straight to a batch writer, so the memory of an import doesn't grow with the page size
+ */
+@Component
+public class TmdbMovieImporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TmdbMovieImporter.class);
+    private static final String POSTER_URL = "https://image.tmdb.org/t/p/original%s";
+    private static final String TOP_RATED = "/movie/top_rated?language=en-US";
+
+    private final TmdbClient tmdbClient;
+    private final GenreRegistry genreRegistry;
+    private final MovieBulkRepository movieBulkRepository;
+    private final int concurrency;
+    private final int batchSize;
+
+    public TmdbMovieImporter(TmdbClient tmdbClient, GenreRegistry genreRegistry,
+                             MovieBulkRepository movieBulkRepository,
+                             @Value("${tmdb.import.concurrency:4}") int concurrency,
+                             @Value("${tmdb.import.batch-size:500}") int batchSize) {
+        this.tmdbClient = tmdbClient;
+        this.genreRegistry = genreRegistry;
+        this.movieBulkRepository = movieBulkRepository;
+        this.concurrency = Math.max(concurrency, 1);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Imports the first pages of the top rated movies, movies that exist already are skipped
+     *
+     * @param pages amount of pages to import, TMDB has 20 movies per page
+     * @return amount of distinct movies read from TMDB
+     */
+    public int importTopRated(int pages) {
+        return importList(TOP_RATED, pages);
+    }
+
+    /**
+     * Imports the first pages of a paged list of movies, movies that exist already are skipped
+     *
+     * @param path  path and query of the list, without the page
+     * @param pages amount of pages to import
+     * @return amount of distinct movies read from TMDB
+     */
+    public int importList(String path, int pages) {
+        if (pages < 1) {
+            return 0;
+        }
+        MovieBatchWriter writer = new MovieBatchWriter(movieBulkRepository::insertAll, batchSize);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, pages));
+        try {
+            List<Future<?>> fetches = new ArrayList<>();
+            for (int page = 1; page <= pages; page++) {
+                String pagePath = path + "&page=" + page;
+                fetches.add(pool.submit(() -> {
+                    tmdbClient.stream(pagePath, "results", TmdbMovie.class, movie -> writer.add(toMovie(movie)));
+                    return null;
+                }));
+            }
+            for (Future<?> fetch : fetches) {
+                fetch.get();
+            }
+            writer.flush();
+
+            int imported = writer.getTmdbIds().size();
+            LOGGER.info("Imported {} movies from {} pages of {}", imported, pages, path);
+            return imported;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not import movies from TMDB", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing movies from TMDB", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Converts a movie of TMDB into a movie of the catalog
+     * Genres are looked up in the genre registry, unknown genres are left out
+     */
+    public Movie toMovie(TmdbMovie tmdbMovie) {
+        Movie movie = new Movie(0, tmdbMovie.title(), tmdbMovie.overview(), tmdbMovie.releaseDate(),
+                tmdbMovie.originalLanguage(),
+                tmdbMovie.posterPath() == null ? null : POSTER_URL.formatted(tmdbMovie.posterPath()),
+                0);
+        movie.setTmdbId(tmdbMovie.id());
+        movie.setTmdbRating(tmdbMovie.voteAverage());
+
+        List<Long> genreIds = new ArrayList<>();
+        if (tmdbMovie.genreIds() != null) {
+            genreIds.addAll(tmdbMovie.genreIds());
+        }
+        if (tmdbMovie.genres() != null) {
+            tmdbMovie.genres().forEach(genre -> genreIds.add(genre.id()));
+        }
+        for (long genreId : genreIds) {
+            genreRegistry.findById(genreId).ifPresentOrElse(
+                    movie::addGenre,
+                    () -> LOGGER.warn("Unknown genre {} of movie {}", genreId, tmdbMovie.id()));
+        }
+        return movie;
+    }
+}
@@ -0,0 +1,64 @@
+package movie_master.api.cache;
+
+import movie_master.api.model.Genre;
+import movie_master.api.repository.GenreRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class GenreRegistryTest {
+
+    @Mock private GenreRepository genreRepository;
+    @InjectMocks private GenreRegistry genreRegistry;
+
+    private final Genre action = new Genre(28, "Action");
+    private final Genre drama = new Genre(18, "Drama");
+
+    @Test
+    void loadsGenresOnlyOnce() {
+        // Given
+        Mockito.when(genreRepository.findAll()).thenReturn(List.of(action, drama));
+
+        // When
+        List<Genre> genres = genreRegistry.getAll();
+        Optional<Genre> byId = genreRegistry.findById(28);
+        Optional<Genre> byName = genreRegistry.findByName("drama");
+
+        // Then
+        assertEquals(List.of(drama, action), genres);
+        assertEquals(Optional.of(action), byId);
+        assertEquals(Optional.of(drama), byName);
+        assertTrue(genreRegistry.findByName("Mockumentary").isEmpty());
+        Mockito.verify(genreRepository, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void etagChangesOnlyWhenGenresChange() {
+        // Given
+        Mockito.when(genreRepository.findAll())
+                .thenReturn(List.of(action))
+                .thenReturn(List.of(action))
+                .thenReturn(List.of(action, drama));
+
+        // When
+        String first = genreRegistry.getETag();
+        genreRegistry.refresh();
+        String unchanged = genreRegistry.getETag();
+        genreRegistry.refresh();
+        String changed = genreRegistry.getETag();
+
+        // Then
+        assertEquals(first, unchanged);
+        assertNotEquals(first, changed);
+        assertTrue(genreRegistry.findById(18).isPresent());
+    }
+}
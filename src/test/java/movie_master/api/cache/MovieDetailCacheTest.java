@@ -0,0 +1,67 @@
+package movie_master.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import movie_master.api.cache.MovieDetailCache.CachedMovie;
+import movie_master.api.dto.MovieDetailDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieDetailCacheTest {
+    private MovieDetailCache movieDetailCache;
+    private MovieDetailDto movie;
+
+    @BeforeEach
+    void setup() {
+        movieDetailCache = new MovieDetailCache(new ObjectMapper(), new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        movie = new MovieDetailDto(1, "Heat", "A group of professional bank robbers", null, "en", "heat.jpg", 7.9, null);
+    }
+
+    @Test
+    void loadsMovieOnlyOnce() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        movieDetailCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(movie); });
+        Optional<CachedMovie> result = movieDetailCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(movie); });
+
+        // Then
+        assertEquals(movie, result.orElseThrow().movie());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void doesNotCacheMissingMovie() {
+        // When
+        Optional<CachedMovie> missing = movieDetailCache.get(1L, id -> Optional.empty());
+        Optional<CachedMovie> result = movieDetailCache.get(1L, id -> Optional.of(movie));
+
+        // Then
+        assertTrue(missing.isEmpty());
+        assertTrue(result.isPresent());
+    }
+
+    @Test
+    void entityTagChangesWithContent() {
+        // Given
+        String etag = movieDetailCache.get(1L, id -> Optional.of(movie)).orElseThrow().eTag();
+        MovieDetailDto rated = new MovieDetailDto(1, "Heat", "A group of professional bank robbers", null, "en",
+                "heat.jpg", 7.9, 8.0);
+
+        // When
+        movieDetailCache.evict(1L);
+        String newEtag = movieDetailCache.get(1L, id -> Optional.of(rated)).orElseThrow().eTag();
+
+        // Then
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertNotEquals(etag, newEtag);
+        assertEquals(etag, movieDetailCache.get(2L, id -> Optional.of(movie)).orElseThrow().eTag());
+    }
+}
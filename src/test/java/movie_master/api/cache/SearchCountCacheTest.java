@@ -0,0 +1,56 @@
+package movie_master.api.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchCountCacheTest {
+    private SearchCountCache searchCountCache;
+
+    @BeforeEach
+    void setup() {
+        searchCountCache = new SearchCountCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void countsEquivalentQueriesOnlyOnce() {
+        // Given
+        AtomicInteger counts = new AtomicInteger();
+
+        // When
+        searchCountCache.get("The Godfather", false, () -> { counts.incrementAndGet(); return 3; });
+        long result = searchCountCache.get("  the   godfather ", false, () -> { counts.incrementAndGet(); return 3; });
+
+        // Then
+        assertEquals(3, result);
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    void cachesFuzzyCountsSeparately() {
+        // When
+        searchCountCache.get("shawshenk", false, () -> 0);
+        long result = searchCountCache.get("shawshenk", true, () -> 1);
+
+        // Then
+        assertEquals(1, result);
+        assertEquals(0, searchCountCache.get("shawshenk", false, () -> 5));
+    }
+
+    @Test
+    void countsAgainAfterInvalidation() {
+        // Given
+        searchCountCache.get("heat", false, () -> 1);
+
+        // When
+        searchCountCache.invalidateAll();
+
+        // Then
+        assertEquals(2, searchCountCache.get("heat", false, () -> 2));
+    }
+}
@@ -0,0 +1,111 @@
+package movie_master.api.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import movie_master.api.dto.UserDto;
+import movie_master.api.model.User;
+import movie_master.api.model.detail.CustomUserDetails;
+import movie_master.api.model.role.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+    private UserCache userCache;
+    private CustomUserDetails userDetails;
+    private UserDto userDto;
+
+    @BeforeEach
+    void setup() {
+        userCache = new UserCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+        User user = new User("mock@gmail.com", "mock", "mocked", Role.ROLE_USER, true, false);
+        user.setUserId(1L);
+        userDetails = new CustomUserDetails(user);
+        userDto = new UserDto(1L, "mock@gmail.com", "mock", null, LocalDate.now(), Role.ROLE_USER);
+    }
+
+    @Test
+    void loadsUserDetailsOnlyOnce() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        userCache.getUserDetails("mock", username -> { loads.incrementAndGet(); return userDetails; });
+        CustomUserDetails result = userCache.getUserDetails("mock", username -> { loads.incrementAndGet(); return userDetails; });
+
+        // Then
+        assertEquals(userDetails, result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void doesNotCacheMissingUser() {
+        // When & then
+        assertThrows(UsernameNotFoundException.class, () ->
+                userCache.getUserDetails("unknown", username -> { throw new UsernameNotFoundException(username); }));
+        assertNull(userCache.getUserByEmail("unknown@gmail.com", () -> null));
+        assertEquals(userDto, userCache.getUserByEmail("unknown@gmail.com", () -> userDto));
+    }
+
+    @Test
+    void evictRemovesAllEntriesOfUser() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        userCache.getUserDetails("mock", username -> userDetails);
+        userCache.getUserByUsername("mock", () -> userDto);
+        userCache.getUserByEmail("mock@gmail.com", () -> userDto);
+
+        // When
+        userCache.evict(1L);
+        userCache.getUserDetails("mock", username -> { loads.incrementAndGet(); return userDetails; });
+        userCache.getUserByUsername("mock", () -> { loads.incrementAndGet(); return userDto; });
+        userCache.getUserByEmail("mock@gmail.com", () -> { loads.incrementAndGet(); return userDto; });
+
+        // Then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictInTransactionRemovesEntriesCachedBeforeTheCommit() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userCache.evict(1L);
+            // A concurrent lookup caches the user as it was before the commit
+            userCache.getUserDetails("mock", username -> userDetails);
+
+            // When
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        userCache.getUserDetails("mock", username -> { loads.incrementAndGet(); return userDetails; });
+
+        // Then
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void oldUsernameOfChangedUserIsNotServed() {
+        // Given
+        userCache.getUserByUsername("mock", () -> userDto);
+        userCache.evict(1L);
+        UserDto renamed = new UserDto(1L, "mock@gmail.com", "renamed", null, LocalDate.now(), Role.ROLE_USER);
+        userCache.getUserByUsername("renamed", () -> renamed);
+
+        // When
+        UserDto result = userCache.getUserByUsername("mock", () -> null);
+
+        // Then
+        assertNull(result);
+    }
+}
@@ -1,6 +1,8 @@
 package movie_master.api.controller;
 
+import movie_master.api.jwt.JwtClaims;
 import movie_master.api.jwt.JwtUtil;
+import movie_master.api.jwt.TokenVersionCache;
 import movie_master.api.model.User;
 import movie_master.api.model.detail.CustomUserDetails;
 import movie_master.api.model.role.Role;
@@ -34,6 +36,7 @@ public class AuthControllerTests {
     @Mock private AuthenticationManager authenticationManager;
     @Mock private JwtUtil jwtUtil;
     @Mock private UserDetailsService userDetailsService;
+    @Mock private TokenVersionCache tokenVersionCache;
     @Mock private Authentication authentication;
     @Mock private BadCredentialsException badCredentialsException;
     @InjectMocks private AuthController authController;
@@ -58,6 +61,7 @@ public class AuthControllerTests {
         claims.put("userId", userId);
         claims.put("role", role);
         claims.put("profileUrl", profilePicture);
+        claims.put("tokenVersion", userDetails.getTokenVersion());
 
         String jwt = "jwt";
         String refreshJwt = "refreshJwt";
@@ -88,23 +92,25 @@ public class AuthControllerTests {
 
     @Test
     void userCanRetrieveRefreshToken() {
-        Mockito.when(jwtUtil.getSubject(refreshJwtRequest.jwt())).thenReturn(userDetails.getUsername());
-        Mockito.when(userDetailsService.loadUserByUsername(jwtUtil.getSubject(refreshJwtRequest.jwt())))
-                .thenReturn(userDetails);
-
         Long userId = userDetails.getUserId();
         String username = userDetails.getUsername();
         Role role = userDetails.getRole();
         String profilePicture = userDetails.getProfilePicture();
+        JwtClaims refreshClaims = new JwtClaims(userId, username, role, userDetails.getTokenVersion(), null);
+
+        Mockito.when(jwtUtil.parseJwt(refreshJwtRequest.jwt())).thenReturn(refreshClaims);
+        Mockito.when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
         claims.put("profileUrl", profilePicture);
+        claims.put("tokenVersion", userDetails.getTokenVersion());
 
         String jwt = "jwt";
 
-        Mockito.when(jwtUtil.isJwtValid(refreshJwtRequest.jwt(), userId, username, role)).thenReturn(true);
+        Mockito.when(jwtUtil.isJwtValid(refreshClaims, userId, username, role)).thenReturn(true);
+        Mockito.when(tokenVersionCache.isCurrent(userId, userDetails.getTokenVersion())).thenReturn(true);
         Mockito.when(jwtUtil.generateJwt(claims, username)).thenReturn(jwt);
 
         ResponseEntity<Object> result = authController.refresh(refreshJwtRequest);
@@ -115,18 +121,55 @@ public class AuthControllerTests {
 
     @Test
     void userCanHaveInvalidRefreshToken() {
-        Mockito.when(jwtUtil.getSubject(refreshJwtRequest.jwt())).thenReturn(userDetails.getUsername());
-        Mockito.when(userDetailsService.loadUserByUsername(jwtUtil.getSubject(refreshJwtRequest.jwt()))).thenReturn(userDetails);
+        Long userId = userDetails.getUserId();
+        String username = userDetails.getUsername();
+        Role role = userDetails.getRole();
+        JwtClaims refreshClaims = new JwtClaims(userId, username, role, userDetails.getTokenVersion(), null);
+
+        Mockito.when(jwtUtil.parseJwt(refreshJwtRequest.jwt())).thenReturn(refreshClaims);
+        Mockito.when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
+        Mockito.when(jwtUtil.isJwtValid(refreshClaims, userId, username, role)).thenReturn(false);
 
+        ResponseEntity<Object> result = authController.refresh(refreshJwtRequest);
+
+        assertEquals(result.getStatusCode(), HttpStatusCode.valueOf(HttpStatus.UNAUTHORIZED.value()));
+        assertEquals(result.getBody(), "Invalid refresh token");
+    }
+
+    @Test
+    void userCantRefreshWithTokenIssuedBeforeTokenVersionChange() {
         Long userId = userDetails.getUserId();
         String username = userDetails.getUsername();
         Role role = userDetails.getRole();
+        // The refresh token was issued before e.g. a password reset
+        JwtClaims refreshClaims = new JwtClaims(userId, username, role, userDetails.getTokenVersion() - 1, null);
 
-        Mockito.when(jwtUtil.isJwtValid(refreshJwtRequest.jwt(), userId, username, role)).thenReturn(false);
+        Mockito.when(jwtUtil.parseJwt(refreshJwtRequest.jwt())).thenReturn(refreshClaims);
+        Mockito.when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
+        Mockito.when(jwtUtil.isJwtValid(refreshClaims, userId, username, role)).thenReturn(true);
+        Mockito.when(tokenVersionCache.isCurrent(userId, refreshClaims.tokenVersion())).thenReturn(false);
 
         ResponseEntity<Object> result = authController.refresh(refreshJwtRequest);
 
         assertEquals(result.getStatusCode(), HttpStatusCode.valueOf(HttpStatus.UNAUTHORIZED.value()));
         assertEquals(result.getBody(), "Invalid refresh token");
+        Mockito.verify(jwtUtil, Mockito.never()).generateJwt(Mockito.anyMap(), Mockito.anyString());
+    }
+
+    @Test
+    void bannedUserCantRefresh() {
+        User bannedUser = new User("banned@gmail.com", "banned", "mocked", Role.ROLE_USER, true, true);
+        CustomUserDetails bannedUserDetails = new CustomUserDetails(bannedUser);
+        JwtClaims refreshClaims = new JwtClaims(bannedUserDetails.getUserId(), bannedUserDetails.getUsername(),
+                bannedUserDetails.getRole(), bannedUserDetails.getTokenVersion(), null);
+
+        Mockito.when(jwtUtil.parseJwt(refreshJwtRequest.jwt())).thenReturn(refreshClaims);
+        Mockito.when(userDetailsService.loadUserByUsername(bannedUserDetails.getUsername())).thenReturn(bannedUserDetails);
+
+        ResponseEntity<Object> result = authController.refresh(refreshJwtRequest);
+
+        assertEquals(result.getStatusCode(), HttpStatusCode.valueOf(HttpStatus.UNAUTHORIZED.value()));
+        assertEquals(result.getBody(), "This account has been banned.");
+        Mockito.verify(jwtUtil, Mockito.never()).generateJwt(Mockito.anyMap(), Mockito.anyString());
     }
 }
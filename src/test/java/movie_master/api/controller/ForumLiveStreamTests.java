@@ -0,0 +1,84 @@
+package movie_master.api.controller;
+
+import movie_master.api.jwt.JwtClaims;
+import movie_master.api.jwt.JwtFilter;
+import movie_master.api.jwt.JwtUtil;
+import movie_master.api.model.detail.CustomUserDetails;
+import movie_master.api.model.role.Role;
+import movie_master.api.service.CommentService;
+import movie_master.api.service.CustomUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Follows a topic through the whole security filter chain, up to the async dispatch that ends the stream
+ */
+@SpringBootTest(properties = "jwt.stateless=false")
+@AutoConfigureMockMvc
+public class ForumLiveStreamTests {
+    private static final String JWT = "jwt";
+
+    @Autowired private MockMvc mockMvc;
+    @MockBean private CommentService commentService;
+    @MockBean private JwtUtil jwtUtil;
+    @MockBean private CustomUserDetailsService userDetailsService;
+
+    private SseEmitter emitter;
+
+    @BeforeEach
+    void setup() throws Exception {
+        JwtClaims jwtClaims = new JwtClaims(1L, "user1", Role.ROLE_USER, 0, null);
+        when(jwtUtil.parseJwt(JWT)).thenReturn(jwtClaims);
+        when(userDetailsService.loadUserByUsername("user1"))
+                .thenReturn(new CustomUserDetails(1L, "user1", Role.ROLE_USER, 0));
+        when(jwtUtil.isJwtValid(jwtClaims, 1L, "user1", Role.ROLE_USER)).thenReturn(true);
+
+        emitter = new SseEmitter();
+        when(commentService.subscribe(1L)).thenReturn(emitter);
+    }
+
+    @Test
+    public void streamsCommentsUntilTheStreamCompletes() throws Exception {
+        MvcResult result = mockMvc.perform(get("/forum/topics/1/live").header("Authorization", "Bearer " + JWT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        emitter.send(SseEmitter.event().name("comment").data("First comment"));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("data:First comment")));
+    }
+
+    @Test
+    public void acceptsTheJwtAsQueryParameterForEventSources() throws Exception {
+        MvcResult result = mockMvc.perform(get("/forum/topics/1/live").param(JwtFilter.ACCESS_TOKEN_PARAMETER, JWT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    public void rejectsStreamsWithoutJwt() throws Exception {
+        mockMvc.perform(get("/forum/topics/1/live")).andExpect(status().isUnauthorized());
+    }
+}
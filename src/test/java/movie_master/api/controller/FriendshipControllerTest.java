@@ -6,7 +6,7 @@ import movie_master.api.exception.FriendshipAlreadyExistsException;
 import movie_master.api.exception.FriendshipNotFoundException;
 import movie_master.api.exception.UserCannotFriendThemself;
 import movie_master.api.exception.UserNotFoundException;
-import movie_master.api.jwt.JwtUtil;
+import movie_master.api.jwt.JwtClaims;
 import movie_master.api.model.User;
 import movie_master.api.model.friendship.FriendshipStatus;
 import movie_master.api.model.role.Role;
@@ -31,28 +31,25 @@ import static org.mockito.Mockito.*;
 public class FriendshipControllerTest {
 
     @Mock private DefaultFriendshipService defaultFriendshipService;
-    @Mock private JwtUtil jwtUtil;
     @InjectMocks private FriendshipController friendshipController;
 
-    private String jwtTokenUser1;
-    private String jwtTokenUser2;
+    private JwtClaims jwtClaimsUser1;
+    private JwtClaims jwtClaimsUser2;
     private User mockUser1;
     private User mockUser2;
     private User mockUser3;
 
     @BeforeEach
     void setup() {
-        jwtTokenUser1 = "eyJhbGciOiJIUzI1NiJ9.eyJyb2xlcyI6WyJST0xFX1VTRVIiXSwidXNlcklkIjoxLCJzdWIiOiJ1c2VyMSIsI" +
-                "mlhdCI6MTczMzc2Nzc4MCwiZXhwIjoxNzQxNTQzNzgwfQ.0yWfkHVkb9vzQi4Raq-VxNAsKBFuZWBRqC3bR0FgZWI";
-        jwtTokenUser2 = "eyJhbGciOiJIUzI1NiJ9.eyJyb2xlcyI6WyJST0xFX1VTRVIiXSwidXNlcklkIjoyLCJzdWIiOiJ1c2VyMiIsImlh" +
-                "dCI6MTczMzc2Nzc4MCwiZXhwIjoxNzQxNTQzNzgwfQ.xWFksILDJbDk8E7FXi1JEBuCkS43-G3OQgRhY2lQKkg";
-
         mockUser1 = new User("user1@gmail.com", "user1", "password1", Role.ROLE_USER, true, false);
         mockUser1.setUserId(1L);
         mockUser2 = new User("user2@gmail.com", "user2", "password2", Role.ROLE_USER, true, false);
         mockUser2.setUserId(2L);
         mockUser3 = new User("user3@gmail.com", "user3", "password3", Role.ROLE_USER, true, false);
         mockUser3.setUserId(3L);
+
+        jwtClaimsUser1 = new JwtClaims(mockUser1.getUserId(), mockUser1.getUsername(), Role.ROLE_USER, 0, null);
+        jwtClaimsUser2 = new JwtClaims(mockUser2.getUserId(), mockUser2.getUsername(), Role.ROLE_USER, 0, null);
     }
 
     @Test
@@ -62,14 +59,13 @@ public class FriendshipControllerTest {
                 FriendshipStatus.PENDING, LocalDateTime.now());
         HttpServletRequest mockRequest = mock(HttpServletRequest.class);
 
-        when(jwtUtil.getUserId(jwtTokenUser1.replace("Bearer ", ""))).thenReturn(mockUser1.getUserId());
         when(defaultFriendshipService.addFriend(mockUser1.getUserId(), mockUser2.getUsername())).thenReturn(friendshipDto);
         when(mockRequest.getRequestURI()).thenReturn("/friends");
 
         // Act
         ResponseEntity<Object> response = friendshipController.addFriend(
                 new FriendshipRequest(mockUser2.getUsername(), FriendshipStatus.PENDING.toString()),
-                jwtTokenUser1, mockRequest
+                jwtClaimsUser1, mockRequest
         );
 
         // Assert
@@ -82,13 +78,12 @@ public class FriendshipControllerTest {
         // Arrange
         FriendshipDto updatedFriendshipDto = new FriendshipDto(mockUser1.getUserId(), mockUser1.getUsername(), mockUser1.getUserId(), mockUser2.getUsername(), mockUser2.getUserId(),null,
                 FriendshipStatus.PENDING, LocalDateTime.now());
-        when(jwtUtil.getUserId(jwtTokenUser2.replace("Bearer ", ""))).thenReturn(mockUser2.getUserId());
         when(defaultFriendshipService.updateFriendshipStatus(mockUser1.getUsername(), mockUser2.getUserId(), FriendshipStatus.ACCEPTED)).thenReturn(updatedFriendshipDto);
 
         // Act
         ResponseEntity<Object> response = friendshipController.updateFriendshipStatus(
                 new FriendshipRequest(mockUser1.getUsername(), FriendshipStatus.ACCEPTED.toString()),
-                jwtTokenUser2
+                jwtClaimsUser2
         );
 
         // Assert
@@ -100,14 +95,13 @@ public class FriendshipControllerTest {
     void updateFriendshipStatusWhenUpdatingOwnRequest() throws UserNotFoundException, FriendshipNotFoundException {
         // Arrange
         FriendshipRequest friendshipRequest = new FriendshipRequest(mockUser1.getUsername(), FriendshipStatus.ACCEPTED.toString());
-        when(jwtUtil.getUserId(jwtTokenUser2.replace("Bearer ", ""))).thenReturn(mockUser2.getUserId());
         when(defaultFriendshipService.updateFriendshipStatus(mockUser1.getUsername(), mockUser2.getUserId(), FriendshipStatus.ACCEPTED))
                 .thenThrow(new FriendshipNotFoundException(mockUser2.getUserId(), mockUser1.getUserId()));
 
         // Act
         ResponseEntity<Object> response = friendshipController.updateFriendshipStatus(
                 friendshipRequest,
-                jwtTokenUser2
+                jwtClaimsUser2
         );
 
         // Assert
@@ -122,13 +116,12 @@ public class FriendshipControllerTest {
                 new FriendshipDto(1L, mockUser1.getUsername(), mockUser1.getUserId(), mockUser2.getUsername(), mockUser2.getUserId(), null, FriendshipStatus.ACCEPTED, LocalDateTime.now()),
                 new FriendshipDto(1L, mockUser2.getUsername(), mockUser2.getUserId(), mockUser3.getUsername(), mockUser3.getUserId(), null, FriendshipStatus.ACCEPTED, LocalDateTime.now())
         );
-        when(jwtUtil.getUserId(jwtTokenUser1.replace("Bearer ", ""))).thenReturn(mockUser1.getUserId());
         when(defaultFriendshipService.getFriendsByStatus(mockUser1.getUserId(), FriendshipStatus.ACCEPTED)).thenReturn(friends);
 
         // Act
         ResponseEntity<Object> response = friendshipController.getFriendsByStatus(
                 FriendshipStatus.ACCEPTED,
-                jwtTokenUser1
+                jwtClaimsUser1
         );
 
         // Assert
@@ -139,12 +132,11 @@ public class FriendshipControllerTest {
     @Test
     void deleteFriendSuccessfully() throws UserNotFoundException, FriendshipNotFoundException {
         // Arrange
-        when(jwtUtil.getUserId(jwtTokenUser1.replace("Bearer ", ""))).thenReturn(mockUser1.getUserId());
 
         // Act
         ResponseEntity<Object> response = friendshipController.deleteFriend(
                 new FriendshipRequest(mockUser2.getUsername(), FriendshipStatus.ACCEPTED.toString()),
-                jwtTokenUser1
+                jwtClaimsUser1
         );
 
         // Assert
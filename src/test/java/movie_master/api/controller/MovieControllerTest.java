@@ -1,6 +1,8 @@
 package movie_master.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import movie_master.api.cache.MovieDetailCache.CachedMovie;
+import movie_master.api.dto.MovieDetailDto;
 import movie_master.api.exception.DuplicateMovieException;
 import movie_master.api.model.Movie;
 import movie_master.api.service.DefaultMovieService;
@@ -24,8 +26,10 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -79,6 +83,26 @@ public class MovieControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getMovieWithMatchingEntityTagReturnsNotModified() throws Exception {
+        // Given
+        MovieDetailDto movie = new MovieDetailDto(1, "Heat", "A group of professional bank robbers", null, "en",
+                "heat.jpg", 7.9, null);
+        Mockito.when(defaultMovieService.findCachedById(1L))
+                .thenReturn(Optional.of(new CachedMovie(movie, "\"abc\"")));
+
+        // When
+        ResponseEntity<MovieDetailDto> notModified = movieController.getMovie(1L, "\"abc\"");
+        ResponseEntity<MovieDetailDto> changed = movieController.getMovie(1L, "\"old\"");
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertEquals("\"abc\"", changed.getHeaders().getETag());
+        assertEquals(movie, changed.getBody());
+    }
+
     @Test
     void userCanSaveMovie() throws Exception {
         // Given
@@ -2,9 +2,12 @@ package movie_master.api.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import movie_master.api.dto.ReviewDto;
+import movie_master.api.dto.ReviewPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.MovieNotFoundException;
 import movie_master.api.exception.MovieNotInWatchlistException;
 import movie_master.api.exception.UserNotFoundException;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.request.PostReviewRequest;
 import movie_master.api.service.ReviewService;
 import org.jeasy.random.EasyRandom;
@@ -17,11 +20,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static movie_master.utils.TestUtils.createMultipleRandomRecords;
 import static movie_master.utils.TestUtils.createRandomRecord;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 @ExtendWith(MockitoExtension.class)
 class ReviewControllerTest {
@@ -32,18 +37,50 @@ class ReviewControllerTest {
     EasyRandom easyRandom = new EasyRandom();
 
     @Test
-    void getAllReviewsTest() {
+    void getAllReviewsTest() throws InvalidCursorException {
         // Given
         int elementAmount = 10;
         List<ReviewDto> expectedResult = createMultipleRandomRecords(ReviewDto.class, easyRandom, elementAmount);
+        String nextCursor = easyRandom.nextObject(String.class);
 
-        Mockito.when(service.findAll()).thenReturn(expectedResult);
+        Mockito.when(service.findLatest(null, elementAmount)).thenReturn(new ReviewPageDto(expectedResult, nextCursor));
 
         // When
-        ResponseEntity<List<ReviewDto>> result = controller.getAllReviews();
+        ResponseEntity<Object> result = controller.getAllReviews(null, elementAmount);
 
         // Then
         assertEquals(result.getBody(), expectedResult);
+        assertEquals(nextCursor, result.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getReviewsByMovieOnLastPageTest() throws InvalidCursorException {
+        // Given
+        long movieId = easyRandom.nextLong();
+        String cursor = KeysetCursor.of(5, LocalDateTime.now()).encode();
+        List<ReviewDto> expectedResult = createMultipleRandomRecords(ReviewDto.class, easyRandom, 3);
+
+        Mockito.when(service.findByMovie(movieId, cursor, 20)).thenReturn(new ReviewPageDto(expectedResult, null));
+
+        // When
+        ResponseEntity<Object> result = controller.getReviewsByMovie(movieId, cursor, 20);
+
+        // Then
+        assertEquals(result.getBody(), expectedResult);
+        assertFalse(result.getHeaders().containsKey(KeysetCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllReviewsWithInvalidCursorTest() throws InvalidCursorException {
+        // Given
+        String cursor = "invalid";
+        Mockito.when(service.findLatest(cursor, 20)).thenThrow(new InvalidCursorException(cursor));
+
+        // When
+        ResponseEntity<Object> result = controller.getAllReviews(cursor, 20);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
     }
 
     @Test
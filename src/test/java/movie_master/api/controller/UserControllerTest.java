@@ -3,12 +3,16 @@ package movie_master.api.controller;
 import jakarta.servlet.http.HttpServletRequest;
 import movie_master.api.dto.UserDto;
 import movie_master.api.dto.UserMovie.UserMovieDto;
+import movie_master.api.dto.UserMovie.WatchlistItemDto;
+import movie_master.api.dto.UserMovie.WatchlistPageDto;
 import movie_master.api.exception.*;
 import movie_master.api.model.Movie;
 import movie_master.api.model.User;
 import movie_master.api.model.UserMovie;
 import movie_master.api.model.role.Role;
 import movie_master.api.request.RegisterUserRequest;
+import movie_master.api.request.WatchlistPageRequest;
+import movie_master.api.request.WatchlistSort;
 import movie_master.api.service.DefaultUserService;
 import movie_master.utils.TestUtils;
 import org.jeasy.random.EasyRandom;
@@ -130,6 +134,35 @@ class UserControllerTest {
         assertEquals(result.getBody(), expectedMessage);
     }
 
+    @Test
+    void retrieveWatchlistPageSuccessfully() throws UserNotFoundException, InvalidCursorException {
+        // Given
+        long userId = 1337;
+        WatchlistPageDto expectedBody = new WatchlistPageDto(
+            TestUtils.createMultipleRandomRecords(WatchlistItemDto.class, easyRandom, 5), null
+        );
+        WatchlistPageRequest pageRequest = new WatchlistPageRequest(WatchlistSort.TITLE, true, null, null, null, 5);
+
+        Mockito.when(defaultUserService.getWatchListPage(userId, pageRequest)).thenReturn(expectedBody);
+
+        // When
+        ResponseEntity<Object> result = userController.getWatchListPage(userId, "title", true, null, null, null, 5);
+
+        // Then
+        assertEquals(result.getStatusCode(), HttpStatusCode.valueOf(HttpStatus.OK.value()));
+        assertEquals(result.getBody(), expectedBody);
+    }
+
+    @Test
+    void failRetrievingWatchlistPageWithUnknownSort() {
+        // When
+        ResponseEntity<Object> result = userController.getWatchListPage(1337L, "popularity", null, null, null, null, 20);
+
+        // Then
+        assertEquals(result.getStatusCode(), HttpStatusCode.valueOf(HttpStatus.BAD_REQUEST.value()));
+        Mockito.verifyNoInteractions(defaultUserService);
+    }
+
     @Test
     void userCanBeFoundByUserName() throws UserNotFoundException {
         // Given
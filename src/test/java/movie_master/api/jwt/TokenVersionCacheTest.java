@@ -0,0 +1,122 @@
+package movie_master.api.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import movie_master.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionCacheTest {
+
+    @Mock private UserRepository userRepository;
+    private TokenVersionCache tokenVersionCache;
+
+    @BeforeEach
+    void setup() {
+        tokenVersionCache = new TokenVersionCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void loadsVersionOnlyOnce() {
+        // Given
+        Mockito.when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(3));
+
+        // When
+        boolean current = tokenVersionCache.isCurrent(1L, 3);
+        Integer version = tokenVersionCache.getVersion(1L);
+
+        // Then
+        assertTrue(current);
+        assertEquals(3, version);
+        Mockito.verify(userRepository, Mockito.times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void oldVersionIsNotCurrentAfterUpdate() {
+        // Given
+        Mockito.when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        tokenVersionCache.getVersion(1L);
+
+        // When
+        tokenVersionCache.update(1L, 1);
+
+        // Then
+        assertFalse(tokenVersionCache.isCurrent(1L, 0));
+        assertTrue(tokenVersionCache.isCurrent(1L, 1));
+    }
+
+    @Test
+    void unknownUserIsNotCurrent() {
+        // Given
+        Mockito.when(userRepository.findTokenVersionById(2L)).thenReturn(Optional.empty());
+
+        // Then
+        assertFalse(tokenVersionCache.isCurrent(2L, 0));
+        assertFalse(tokenVersionCache.isCurrent(2L, null));
+    }
+
+    @Test
+    void updateInTransactionIsOnlyAppliedAfterTheCommit() {
+        // Given
+        Mockito.when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        tokenVersionCache.getVersion(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenVersionCache.update(1L, 1);
+            // The change isn't committed yet, so the jwts of the current version are still accepted
+            assertTrue(tokenVersionCache.isCurrent(1L, 0));
+
+            // When
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertFalse(tokenVersionCache.isCurrent(1L, 0));
+        assertTrue(tokenVersionCache.isCurrent(1L, 1));
+    }
+
+    @Test
+    void updateInRolledBackTransactionIsDiscarded() {
+        // Given
+        Mockito.when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        tokenVersionCache.getVersion(1L);
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenVersionCache.update(1L, 1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertTrue(tokenVersionCache.isCurrent(1L, 0));
+    }
+
+    @Test
+    void versionIsReloadedAfterTimeToLive() {
+        // Given
+        tokenVersionCache = new TokenVersionCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ZERO);
+        Mockito.when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0), Optional.of(1));
+        tokenVersionCache.getVersion(1L);
+
+        // When another node has changed the user in the meantime
+        Integer version = tokenVersionCache.getVersion(1L);
+
+        // Then
+        assertEquals(1, version);
+    }
+}
@@ -0,0 +1,125 @@
+package movie_master.api.live;
+
+import movie_master.api.dto.Forum.CommentDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForumLiveHubTest {
+    private ForumLiveHub forumLiveHub;
+
+    @BeforeEach
+    void setup() {
+        forumLiveHub = new ForumLiveHub(new InMemoryForumBroker(), 2, Duration.ofMinutes(1), 2);
+    }
+
+    @AfterEach
+    void close() {
+        forumLiveHub.close();
+    }
+
+    private static CommentDto comment(long id) {
+        return new CommentDto(id, "Comment " + id, "user1", null, LocalDateTime.of(2026, 10, 18, 12, 0));
+    }
+
+    // Emitter that records the comments it sends, instead of writing them to a response
+    private static class RecordingEmitter extends SseEmitter {
+        final BlockingQueue<CommentDto> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof CommentDto comment) {
+                    sent.add(comment);
+                }
+            }
+        }
+    }
+
+    @Test
+    void pushesCommentsToTheFollowersOfTheTopicOnly() throws InterruptedException {
+        // Given
+        RecordingEmitter follower = new RecordingEmitter();
+        RecordingEmitter otherTopicFollower = new RecordingEmitter();
+        forumLiveHub.subscribe(1L, follower);
+        forumLiveHub.subscribe(2L, otherTopicFollower);
+
+        // When
+        forumLiveHub.commentPosted(new CommentPostedEvent(1L, comment(10)));
+        forumLiveHub.commentPosted(new CommentPostedEvent(1L, comment(11)));
+
+        // Then
+        assertEquals(comment(10), follower.sent.poll(5, TimeUnit.SECONDS));
+        assertEquals(comment(11), follower.sent.poll(5, TimeUnit.SECONDS));
+        assertTrue(otherTopicFollower.sent.isEmpty());
+    }
+
+    @Test
+    void dropsFollowerThatFallsBehind() throws InterruptedException {
+        // Given a follower that doesn't receive anything until released
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slowFollower = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        RecordingEmitter follower = new RecordingEmitter();
+        forumLiveHub.subscribe(1L, slowFollower);
+        forumLiveHub.subscribe(1L, follower);
+
+        // When more comments arrive than one is sending and two are buffered
+        try {
+            for (long id = 1; id <= 4; id++) {
+                forumLiveHub.commentPosted(new CommentPostedEvent(1L, comment(id)));
+                // Lets the other follower keep up
+                assertEquals(comment(id), follower.sent.poll(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+        }
+
+        // Then only the slow follower is dropped
+        assertEquals(1, forumLiveHub.countSubscribers(1L));
+    }
+
+    @Test
+    void dropsFollowerThatHasGone() throws InterruptedException {
+        // Given
+        CountDownLatch attempted = new CountDownLatch(1);
+        forumLiveHub.subscribe(1L, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                attempted.countDown();
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        // When
+        forumLiveHub.commentPosted(new CommentPostedEvent(1L, comment(1)));
+
+        // Then
+        assertTrue(attempted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50 && forumLiveHub.countSubscribers(1L) > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, forumLiveHub.countSubscribers(1L));
+    }
+}
@@ -0,0 +1,36 @@
+package movie_master.api.mapper;
+
+import movie_master.api.dto.MovieCardDto;
+import movie_master.api.model.Genre;
+import movie_master.api.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovieDtoMapperTest {
+
+    @InjectMocks
+    MovieDtoMapper mapper;
+
+    @Test
+    void canMapMovieToCardWithoutDescription() {
+        // Given
+        Movie movie = new Movie(949, "Heat", "A group of professional bank robbers", null, "en", "heat.jpg", 7.9);
+        movie.setMmAvgRating(8.5);
+        movie.addGenre(new Genre(80, "Crime"));
+        movie.addGenre(new Genre(28, "Action"));
+        MovieCardDto expectedResult = new MovieCardDto(949, "Heat", "heat.jpg", null, 7.9, 8.5, List.of(28L, 80L));
+
+        // When
+        MovieCardDto result = mapper.mapMovieToCardDto(movie);
+
+        // Then
+        assertEquals(expectedResult, result);
+    }
+}
@@ -31,7 +31,8 @@ class ReviewDtoMapperTest {
             user.getProfilePicture(),
             review.getUserMovie().getMovie().getTitle(),
             review.getRating(),
-            review.getComment()
+            review.getComment(),
+            review.getReviewDate()
         );
 
         // When
@@ -0,0 +1,42 @@
+package movie_master.api.pagination;
+
+import movie_master.api.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodedCursorCanBeDecoded() throws InvalidCursorException {
+        // Given
+        KeysetCursor cursor = KeysetCursor.of(42, "Lock, Stock: Two Smoking Barrels");
+
+        // When
+        KeysetCursor result = KeysetCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, result);
+    }
+
+    @Test
+    void missingCursorDecodesToNull() throws InvalidCursorException {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(""));
+    }
+
+    @Test
+    void cannotDecodeInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(KeysetCursor.of(1, "x").encode().substring(1)));
+    }
+
+    @Test
+    void keyCanBeReadAsNumber() throws InvalidCursorException {
+        assertEquals(818035200000L, KeysetCursor.of(1, 818035200000L).keyAsLong());
+        assertEquals(6.9, KeysetCursor.of(1, 6.9).keyAsDouble());
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.of(1, "x").keyAsLong());
+    }
+}
@@ -0,0 +1,164 @@
+package movie_master.api.ranking;
+
+import movie_master.api.dto.Forum.CommentDto;
+import movie_master.api.live.CommentPostedEvent;
+import movie_master.api.live.InMemoryForumBroker;
+import movie_master.api.live.TopicCreatedEvent;
+import movie_master.api.repository.TopicBulkRepository;
+import movie_master.api.repository.TopicRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotTopicRankingTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock private TopicRepository topicRepository;
+    @Mock private TopicBulkRepository topicBulkRepository;
+
+    private InMemoryForumBroker forumBroker;
+    private HotTopicRanking hotTopicRanking;
+
+    @BeforeEach
+    void setup() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+        forumBroker = new InMemoryForumBroker();
+        hotTopicRanking = new HotTopicRanking(topicRepository, topicBulkRepository, forumBroker,
+                Duration.ofHours(6), clock);
+    }
+
+    private void comment(long topicId, LocalDateTime at) {
+        forumBroker.publish(new CommentPostedEvent(topicId, new CommentDto(1L, "Comment", "user1", null, at)));
+    }
+
+    @Test
+    void ranksRecentActivityAboveOlderActivity() {
+        // Given
+        hotTopicRanking.topicCreated(1L, NOW.minusDays(1));
+        hotTopicRanking.topicCreated(2L, NOW.minusHours(1));
+        // Three comments a day ago are worth less than two points an hour ago
+        comment(1L, NOW.minusDays(1));
+        comment(1L, NOW.minusDays(1));
+        comment(2L, NOW.minusHours(1));
+
+        // When
+        List<Long> top = hotTopicRanking.top(10);
+
+        // Then
+        assertEquals(List.of(2L, 1L), top);
+    }
+
+    @Test
+    void ranksMoreActivityAboveLessAtTheSameTime() {
+        // Given
+        hotTopicRanking.topicCreated(1L, NOW.minusHours(2));
+        hotTopicRanking.topicCreated(2L, NOW.minusHours(2));
+        hotTopicRanking.topicCreated(3L, NOW.minusHours(2));
+        comment(3L, NOW.minusHours(1));
+        comment(3L, NOW.minusHours(1));
+        comment(1L, NOW.minusHours(1));
+
+        // When
+        List<Long> top = hotTopicRanking.top(2);
+
+        // Then
+        assertEquals(List.of(3L, 1L), top);
+    }
+
+    @Test
+    void addsScoresAsLogarithms() {
+        // 2^3 + 2^3 = 2^4
+        assertEquals(4.0, HotTopicRanking.log2Sum(3.0, 3.0), 1e-9);
+        // Far apart scores don't lose the larger one
+        assertEquals(2000.0, HotTopicRanking.log2Sum(2000.0, 10.0), 1e-9);
+    }
+
+    @Test
+    void loadsStoredScoresAndScoresTopicsWithoutOne() {
+        // Given
+        double stored = HotTopicRanking.log2Sum(0, 0) + NOW.toEpochSecond(ZoneOffset.UTC) / 21600.0;
+        when(topicRepository.findScoresActiveSince(NOW.minusDays(5))).thenReturn(List.of(
+                new TopicScore(1L, null, NOW.minusHours(1)),
+                new TopicScore(2L, stored, NOW)));
+
+        // When
+        hotTopicRanking.load();
+
+        // Then
+        assertEquals(List.of(2L, 1L), hotTopicRanking.top(10));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void snapshotsChangedScoresAndForgetsCooledDownTopics() {
+        // Given
+        hotTopicRanking.topicCreated(1L, NOW);
+        hotTopicRanking.topicCreated(2L, NOW.minusDays(30));
+        ArgumentCaptor<Map<Long, Double>> scores = ArgumentCaptor.forClass(Map.class);
+
+        // When
+        hotTopicRanking.snapshot();
+        hotTopicRanking.snapshot();
+
+        // Then
+        verify(topicBulkRepository, times(1)).updateHotScores(scores.capture());
+        assertEquals(2, scores.getValue().size());
+        assertEquals(List.of(1L), hotTopicRanking.top(10));
+    }
+
+    @Test
+    void retriesScoresThatCouldNotBeStored() {
+        // Given
+        hotTopicRanking.topicCreated(1L, NOW);
+        doThrow(new IllegalStateException("Database unavailable")).doNothing()
+                .when(topicBulkRepository).updateHotScores(any());
+
+        // When
+        hotTopicRanking.snapshot();
+        hotTopicRanking.snapshot();
+
+        // Then
+        verify(topicBulkRepository, times(2)).updateHotScores(Map.of(1L,
+                NOW.toEpochSecond(ZoneOffset.UTC) / 21600.0));
+    }
+
+    @Test
+    void ranksTopicsCreatedOnOtherNodes() {
+        // Given
+        hotTopicRanking.topicCreated(1L, NOW.minusHours(12));
+
+        // When
+        forumBroker.publish(new TopicCreatedEvent(2L, NOW));
+
+        // Then
+        assertEquals(List.of(2L, 1L), hotTopicRanking.top(10));
+    }
+
+    @Test
+    void storesScoresOnShutdown() {
+        // Given
+        hotTopicRanking.topicCreated(1L, NOW);
+
+        // When
+        hotTopicRanking.close();
+
+        // Then
+        verify(topicBulkRepository).updateHotScores(Map.of(1L, NOW.toEpochSecond(ZoneOffset.UTC) / 21600.0));
+    }
+}
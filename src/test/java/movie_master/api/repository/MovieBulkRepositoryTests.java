@@ -0,0 +1,99 @@
+package movie_master.api.repository;
+
+import jakarta.persistence.EntityManager;
+import movie_master.api.model.Genre;
+import movie_master.api.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Movies of TMDB are keyed on their TMDB id, the id of a movie stays generated by the database
+ */
+@SpringBootTest
+@Transactional
+public class MovieBulkRepositoryTests {
+    private static final Date RELEASE_DATE = Date.from(Instant.parse("1994-09-23T00:00:00Z"));
+
+    @Autowired private MovieBulkRepository movieBulkRepository;
+    @Autowired private MovieRepository movieRepository;
+    @Autowired private EntityManager entityManager;
+
+    private Movie tmdbMovie(long tmdbId, String title, Genre... genres) {
+        Movie movie = new Movie(0, title, "Description", RELEASE_DATE, "en", "there", 8.7);
+        movie.setTmdbId(tmdbId);
+        for (Genre genre : genres) {
+            movie.addGenre(genre);
+        }
+        return movie;
+    }
+
+    private List<Movie> findByTmdbId(long tmdbId) {
+        entityManager.clear();
+        return entityManager.createQuery("SELECT m FROM Movie m WHERE m.tmdbId = :tmdbId", Movie.class)
+                .setParameter("tmdbId", tmdbId)
+                .getResultList();
+    }
+
+    @Test
+    public void insertingAMovieLeavesTheMovieWithTheSameIdAlone() {
+        // Given
+        Movie local = movieRepository.saveAndFlush(new Movie(0, "Local movie", "Description", RELEASE_DATE, "en", "there", 7));
+
+        // When
+        movieBulkRepository.insertAll(List.of(tmdbMovie(local.getId(), "Bulk test")));
+
+        // Then
+        List<Movie> imported = findByTmdbId(local.getId());
+        assertEquals(1, imported.size());
+        assertNotEquals(local.getId(), imported.get(0).getId());
+        Movie stored = movieRepository.findById(local.getId()).orElseThrow();
+        assertEquals("Local movie", stored.getTitle());
+        assertNull(stored.getTmdbId());
+    }
+
+    @Test
+    public void upsertingAMovieUpdatesTheMovieWithItsTmdbId() {
+        // Given
+        Genre drama = new Genre(18, "Drama");
+        Genre crime = new Genre(80, "Crime");
+        movieBulkRepository.upsertGenres(List.of(drama, crime));
+        movieBulkRepository.insertAll(List.of(tmdbMovie(900_000_001L, "Bulk test", drama)));
+        long movieId = findByTmdbId(900_000_001L).get(0).getId();
+
+        // When
+        movieBulkRepository.upsertAll(List.of(tmdbMovie(900_000_001L, "Bulk test, renamed", crime)));
+
+        // Then
+        List<Movie> stored = findByTmdbId(900_000_001L);
+        assertEquals(1, stored.size());
+        assertEquals(movieId, stored.get(0).getId());
+        assertEquals("Bulk test, renamed", stored.get(0).getTitle());
+        assertEquals(Set.of(80L), stored.get(0).getGenres().stream().map(Genre::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void insertingAMovieClaimsTheMovieThatWasImportedWithoutTmdbId() {
+        // Given
+        Movie legacy = movieRepository.saveAndFlush(new Movie(0, "Legacy bulk test", "Description", RELEASE_DATE, "en", "there", 7));
+
+        // When
+        movieBulkRepository.insertAll(List.of(tmdbMovie(900_000_002L, "Legacy bulk test")));
+
+        // Then
+        List<Movie> stored = findByTmdbId(900_000_002L);
+        assertEquals(1, stored.size());
+        assertEquals(legacy.getId(), stored.get(0).getId());
+    }
+}
@@ -0,0 +1,73 @@
+package movie_master.api.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import movie_master.api.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The rating aggregates of a movie are only written by the atomic updates, never by saving the movie
+ */
+@SpringBootTest
+@Transactional
+public class MovieRatingAggregatesTests {
+    @Autowired private MovieRepository movieRepository;
+    @Autowired private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long rateNewMovie() {
+        Movie movie = movieRepository.save(new Movie(0, "Aggregates test", "Description", Date.from(Instant.now()), "en", "there", 7));
+        movieRepository.adjustRating(movie.getId(), 8.0, 1);
+        movieRepository.adjustRating(movie.getId(), 6.0, 1);
+        entityManager.clear();
+        return movie.getId();
+    }
+
+    private void assertAggregates(long movieId, double ratingSum, long ratingCount, double average) {
+        entityManager.clear();
+        Movie stored = movieRepository.findById(movieId).orElseThrow();
+        assertEquals(ratingSum, stored.getRatingSum());
+        assertEquals(ratingCount, stored.getRatingCount());
+        assertEquals(Double.valueOf(average), stored.getMmAvgRating());
+    }
+
+    @Test
+    public void savingAMovieFromARequestLeavesTheAggregatesUnchanged() throws Exception {
+        // Given
+        long movieId = rateNewMovie();
+        Movie requestBody = objectMapper.readValue("""
+                {"id": %d, "title": "Aggregates test", "ratingSum": 0, "ratingCount": 0, "mm_avg_rating": 1.0}
+                """.formatted(movieId), Movie.class);
+
+        // When
+        movieRepository.saveAndFlush(requestBody);
+
+        // Then
+        assertAggregates(movieId, 14.0, 2, 7.0);
+    }
+
+    @Test
+    public void savingALoadedMovieLeavesTheAggregatesUnchanged() {
+        // Given
+        long movieId = rateNewMovie();
+        Movie loaded = movieRepository.findById(movieId).orElseThrow();
+        // A review is counted after the movie was loaded
+        movieRepository.adjustRating(movieId, 10.0, 1);
+
+        // When
+        loaded.setTitle("Aggregates test, renamed");
+        movieRepository.saveAndFlush(loaded);
+
+        // Then
+        assertAggregates(movieId, 24.0, 3, 8.0);
+    }
+}
@@ -0,0 +1,175 @@
+package movie_master.api.search;
+
+import movie_master.api.exception.InvalidCursorException;
+import movie_master.api.model.Movie;
+import movie_master.api.pagination.KeysetCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MovieSearchIndexTest {
+    private MovieSearchIndex movieSearchIndex;
+
+    private final Movie shawshank = new Movie(278, "The Shawshank Redemption",
+            "Imprisoned in the 1940s for the double murder of his wife and her lover", Date.from(Instant.now()), "en", "there", 8.7);
+    private final Movie godfather = new Movie(238, "The Godfather",
+            "Spanning the years 1945 to 1955, a chronicle of the fictional Italian-American Corleone crime family",
+            Date.from(Instant.now()), "en", "there", 8.7);
+    private final Movie spirited = new Movie(129, "Spirited Away",
+            "A young girl wanders into the world of gods, witches and spirits", Date.from(Instant.now()), "ja", "there", 8.5);
+
+    @BeforeEach
+    void setup() throws IOException {
+        movieSearchIndex = new MovieSearchIndex();
+        movieSearchIndex.rebuild(List.of(shawshank, godfather, spirited));
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        movieSearchIndex.close();
+    }
+
+    @Test
+    void findsMoviesByWholeWordsAndPrefixes() {
+        assertEquals(List.of(278L), movieSearchIndex.search("shawshank", 0, 10).movieIds());
+        assertEquals(List.of(278L), movieSearchIndex.search("Shaws", 0, 10).movieIds());
+        assertEquals(List.of(238L), movieSearchIndex.search("godfather corleone", 0, 10).movieIds());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        // When
+        MovieSearchResult result = movieSearchIndex.search("the", 0, 10);
+
+        // Then both titles starting with 'The' come before the movie that only mentions 'the' in its description
+        assertEquals(3, result.totalHits());
+        assertEquals(129L, result.movieIds().get(2));
+    }
+
+    @Test
+    void returnsRequestedPageAndTotalHits() {
+        // When
+        MovieSearchResult result = movieSearchIndex.search("the", 1, 1);
+
+        // Then
+        assertEquals(1, result.movieIds().size());
+        assertEquals(3, result.totalHits());
+        assertEquals(3, movieSearchIndex.count("the"));
+    }
+
+    @Test
+    void pagesThroughMatchesWithCursor() throws InvalidCursorException {
+        // When
+        MovieSearchResult first = movieSearchIndex.search("the", null, 2);
+        MovieSearchResult second = movieSearchIndex.search("the", KeysetCursor.decode(first.next().encode()), 2);
+
+        // Then
+        assertEquals(2, first.movieIds().size());
+        assertEquals(List.of(129L), second.movieIds());
+        assertNull(second.next());
+        assertEquals(movieSearchIndex.search("the", 0, 10).movieIds(),
+                List.of(first.movieIds().get(0), first.movieIds().get(1), 129L));
+    }
+
+    @Test
+    void pagesThroughEqualScoresById() throws InvalidCursorException {
+        // Given
+        movieSearchIndex.rebuild(List.of(
+                new Movie(4, "Heat", "", null, "en", "there", 8),
+                new Movie(1, "Heat", "", null, "en", "there", 8),
+                new Movie(2, "Heat", "", null, "en", "there", 8)));
+
+        // When
+        MovieSearchResult first = movieSearchIndex.search("heat", null, 2);
+        MovieSearchResult second = movieSearchIndex.search("heat", first.next(), 2);
+
+        // Then
+        assertEquals(List.of(1L, 2L), first.movieIds());
+        assertEquals(List.of(4L), second.movieIds());
+    }
+
+    @Test
+    void pagesThroughMatchesInSeveralSegments() throws InvalidCursorException {
+        // Given movies that were written at different times end up in different segments
+        movieSearchIndex.rebuild(List.of(
+                new Movie(4, "Heat", "", null, "en", "there", 8),
+                new Movie(1, "Heat", "", null, "en", "there", 8)));
+        movieSearchIndex.index(new Movie(5, "Heat", "", null, "en", "there", 8));
+        movieSearchIndex.index(new Movie(2, "Heat", "", null, "en", "there", 8));
+        movieSearchIndex.index(new Movie(3, "Heat", "", null, "en", "there", 8));
+
+        // When every page is requested with the cursor the client got back
+        List<Long> movieIds = new ArrayList<>();
+        KeysetCursor cursor = null;
+        do {
+            MovieSearchResult page = movieSearchIndex.search("heat", cursor, 2);
+            movieIds.addAll(page.movieIds());
+            cursor = page.next() == null ? null : KeysetCursor.decode(page.next().encode());
+        } while (cursor != null);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), movieIds);
+    }
+
+    @Test
+    void fuzzySearchPagesThroughMatchesWithCursor() throws InvalidCursorException {
+        // Given
+        movieSearchIndex.rebuild(List.of(
+                new Movie(4, "Heat", "", null, "en", "there", 8),
+                new Movie(1, "Heat", "", null, "en", "there", 8),
+                new Movie(2, "Heat", "", null, "en", "there", 8)));
+
+        // When
+        MovieSearchResult first = movieSearchIndex.searchFuzzy("heet", null, 2);
+        MovieSearchResult second = movieSearchIndex.searchFuzzy("heet", KeysetCursor.decode(first.next().encode()), 2);
+
+        // Then
+        assertEquals(List.of(1L, 2L), first.movieIds());
+        assertEquals(List.of(4L), second.movieIds());
+        assertNull(second.next());
+    }
+
+    @Test
+    void fuzzySearchFindsMisspelledWords() {
+        assertEquals(0, movieSearchIndex.search("Shawshenk", 0, 10).totalHits());
+        assertEquals(List.of(278L), movieSearchIndex.searchFuzzy("Shawshenk", 0, 10).movieIds());
+        assertEquals(List.of(238L), movieSearchIndex.searchFuzzy("godfathr", 0, 10).movieIds());
+        assertEquals(List.of(129L), movieSearchIndex.searchFuzzy("spirted awya", 0, 10).movieIds());
+        assertEquals(1, movieSearchIndex.countFuzzy("Shawshenk"));
+    }
+
+    @Test
+    void fuzzySearchAllowsMoreTyposInLongerWords() {
+        assertEquals(0, MovieSearchIndex.maxEdits("up"));
+        assertEquals(1, MovieSearchIndex.maxEdits("heat"));
+        assertEquals(2, MovieSearchIndex.maxEdits("godfather"));
+        assertEquals(0, movieSearchIndex.searchFuzzy("shwshk", 0, 10).totalHits());
+    }
+
+    @Test
+    void keepsIndexInSyncWithWrites() {
+        // When
+        movieSearchIndex.remove(278L);
+        godfather.setTitle("The Godfather Part I");
+        movieSearchIndex.index(godfather);
+
+        // Then
+        assertEquals(0, movieSearchIndex.search("shawshank", 0, 10).totalHits());
+        assertEquals(List.of(238L), movieSearchIndex.search("part", 0, 10).movieIds());
+        assertEquals(1, movieSearchIndex.count("godfather"));
+    }
+
+    @Test
+    void findsNothingForEmptyQuery() {
+        assertEquals(0, movieSearchIndex.search("  ", 0, 10).totalHits());
+    }
+}
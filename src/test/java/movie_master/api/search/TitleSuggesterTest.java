@@ -0,0 +1,92 @@
+package movie_master.api.search;
+
+import movie_master.api.dto.MovieSuggestionDto;
+import movie_master.api.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TitleSuggesterTest {
+    private TitleSuggester titleSuggester;
+
+    private final Movie godfather = new Movie(238, "The Godfather", "", null, "en", "godfather.jpg", 8.7);
+    private final Movie godfatherTwo = new Movie(240, "The Godfather Part II", "", null, "en", "part2.jpg", 8.6);
+    private final Movie godzilla = new Movie(1678, "Godzilla", "", null, "ja", "godzilla.jpg", 7.1);
+    private final Movie amelie = new Movie(194, "Le Fabuleux Destin d'Amélie Poulain", "", null, "fr", "amelie.jpg", 7.9);
+
+    @BeforeEach
+    void setup() {
+        titleSuggester = new TitleSuggester();
+        titleSuggester.rebuild(List.of(godzilla, godfather, godfatherTwo, amelie));
+    }
+
+    private List<Long> suggestedIds(String prefix, int limit) {
+        return titleSuggester.suggest(prefix, limit).stream().map(MovieSuggestionDto::id).toList();
+    }
+
+    @Test
+    void suggestsBestRatedMoviesForPrefixOfAnyWord() {
+        assertEquals(List.of(238L, 240L, 1678L), suggestedIds("god", 10));
+        assertEquals(List.of(238L, 240L), suggestedIds("The Godf", 10));
+        assertEquals(List.of(240L), suggestedIds("part", 10));
+        assertEquals(List.of(238L), suggestedIds("god", 1));
+    }
+
+    @Test
+    void ignoresCaseAccentsAndPunctuation() {
+        assertEquals(List.of(194L), suggestedIds("AMELIE", 10));
+        assertEquals(List.of(194L), suggestedIds("d amél", 10));
+        assertEquals(
+                new MovieSuggestionDto(194, "Le Fabuleux Destin d'Amélie Poulain", "amelie.jpg", 7.9),
+                titleSuggester.suggest("poulain", 10).get(0));
+    }
+
+    @Test
+    void suggestsNothingForUnknownOrEmptyPrefix() {
+        assertTrue(titleSuggester.suggest("alien", 10).isEmpty());
+        assertTrue(titleSuggester.suggest("  ", 10).isEmpty());
+        assertTrue(titleSuggester.suggest("god", 0).isEmpty());
+    }
+
+    @Test
+    void addedAndRemovedMoviesAreSuggestedImmediately() {
+        // Given
+        Movie gods = new Movie(1, "Gods of Egypt", "", null, "en", "gods.jpg", 5.5);
+
+        // When
+        titleSuggester.add(gods);
+        titleSuggester.remove(238);
+
+        // Then
+        assertEquals(List.of(240L, 1678L, 1L), suggestedIds("god", 10));
+        assertTrue(titleSuggester.suggest("the godfather part", 10).stream().noneMatch(s -> s.id() == 238));
+
+        // When
+        titleSuggester.remove(240);
+
+        // Then
+        assertTrue(titleSuggester.suggest("the", 10).isEmpty());
+        assertTrue(titleSuggester.suggest("part", 10).isEmpty());
+    }
+
+    @Test
+    void keepsOnlyTheBestMoviesPerPrefix() {
+        // Given
+        for (int i = 0; i < TitleSuggester.MAX_SUGGESTIONS + 5; i++) {
+            titleSuggester.add(new Movie(1000 + i, "Star " + i, "", null, "en", "star.jpg", i));
+        }
+
+        // When
+        titleSuggester.remove(1000 + TitleSuggester.MAX_SUGGESTIONS + 4);
+        List<Long> result = suggestedIds("star", 100);
+
+        // Then
+        assertEquals(TitleSuggester.MAX_SUGGESTIONS, result.size());
+        assertEquals(1000L + TitleSuggester.MAX_SUGGESTIONS + 3, result.get(0));
+        assertEquals(1004L, result.get(result.size() - 1));
+    }
+}
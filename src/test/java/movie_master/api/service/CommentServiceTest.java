@@ -1,12 +1,17 @@
 package movie_master.api.service;
 
 import movie_master.api.dto.Forum.CommentDto;
+import movie_master.api.dto.Forum.CommentPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.TopicNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
+import movie_master.api.live.CommentPostedEvent;
+import movie_master.api.live.ForumLiveHub;
 import movie_master.api.mapper.CommentDtoMapper;
 import movie_master.api.model.Comment;
 import movie_master.api.model.Topic;
 import movie_master.api.model.User;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.repository.CommentRepository;
 import movie_master.api.repository.TopicRepository;
 import movie_master.api.repository.UserRepository;
@@ -16,7 +21,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,6 +47,12 @@ class CommentServiceTest {
     @Mock
     private CommentDtoMapper commentDtoMapper;
 
+    @Mock
+    private ForumLiveHub forumLiveHub;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -66,31 +81,49 @@ class CommentServiceTest {
     }
 
     @Test
-    void getCommentsForTopicSuccessfully() throws TopicNotFoundException {
+    void getCommentsForTopicSuccessfully() throws TopicNotFoundException, InvalidCursorException {
         // Arrange
-        List<Comment> mockComments = List.of(mockComment);
-        when(topicRepository.findById(mockTopic.getTopicId())).thenReturn(Optional.of(mockTopic));
-        when(commentRepository.findAllByTopic(mockTopic)).thenReturn(mockComments);
-        when(commentDtoMapper.toCommentDto(mockComment)).thenReturn(mockCommentDto);
+        when(commentRepository.findPageByTopic(mockTopic.getTopicId(), null, null, PageRequest.of(0, 11)))
+                .thenReturn(List.of(mockCommentDto));
 
         // Act
-        List<CommentDto> result = commentService.getCommentsForTopic(mockTopic.getTopicId());
+        CommentPageDto result = commentService.getCommentsForTopic(mockTopic.getTopicId(), null, 10);
 
         // Assert
-        assertEquals(List.of(mockCommentDto), result);
-        verify(commentRepository, times(1)).findAllByTopic(mockTopic);
-        verify(commentDtoMapper, times(1)).toCommentDto(mockComment);
+        assertEquals(new CommentPageDto(List.of(mockCommentDto), null), result);
+        verify(topicRepository, never()).findById(anyLong());
+        verify(commentDtoMapper, never()).toCommentDto(any());
+    }
+
+    @Test
+    void getNextPageOfCommentsForTopic() throws TopicNotFoundException, InvalidCursorException {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2026, 10, 1, 12, 0);
+        CommentDto first = new CommentDto(4L, "First", "user1", null, created);
+        CommentDto second = new CommentDto(6L, "Second", "user2", null, created.plusMinutes(5));
+        CommentDto third = new CommentDto(9L, "Third", "user1", null, created.plusMinutes(9));
+        String cursor = KeysetCursor.of(2, created.minusMinutes(1)).encode();
+        when(commentRepository.findPageByTopic(mockTopic.getTopicId(), created.minusMinutes(1), 2L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second, third));
+
+        // Act
+        CommentPageDto result = commentService.getCommentsForTopic(mockTopic.getTopicId(), cursor, 2);
+
+        // Assert
+        assertEquals(List.of(first, second), result.items());
+        assertEquals(KeysetCursor.of(6, created.plusMinutes(5)).encode(), result.nextCursor());
     }
 
     @Test
     void getCommentsForTopicTopicNotFound() {
         // Arrange
-        when(topicRepository.findById(mockTopic.getTopicId())).thenReturn(Optional.empty());
+        when(commentRepository.findPageByTopic(mockTopic.getTopicId(), null, null, PageRequest.of(0, 11)))
+                .thenReturn(List.of());
+        when(topicRepository.existsById(mockTopic.getTopicId())).thenReturn(false);
 
         // Act & Assert
         assertThrows(TopicNotFoundException.class, () ->
-                commentService.getCommentsForTopic(mockTopic.getTopicId()));
-        verify(commentRepository, never()).findAllByTopic(any(Topic.class));
+                commentService.getCommentsForTopic(mockTopic.getTopicId(), null, 10));
     }
 
     @Test
@@ -108,6 +141,8 @@ class CommentServiceTest {
         assertEquals(mockCommentDto, result);
         verify(commentRepository, times(1)).save(any(Comment.class));
         verify(commentDtoMapper, times(1)).toCommentDto(mockComment);
+        verify(topicRepository, times(1)).commentAdded(mockTopic.getTopicId(), mockComment.getCreatedAt());
+        verify(eventPublisher, times(1)).publishEvent(new CommentPostedEvent(mockTopic.getTopicId(), mockCommentDto));
     }
 
     @Test
@@ -119,6 +154,7 @@ class CommentServiceTest {
         assertThrows(UserNotFoundException.class, () ->
                 commentService.createComment("Test Comment", mockTopic.getTopicId(), mockUser.getUserId()));
         verify(commentRepository, never()).save(any(Comment.class));
+        verify(topicRepository, never()).commentAdded(anyLong(), any());
     }
 
     @Test
@@ -131,5 +167,30 @@ class CommentServiceTest {
         assertThrows(TopicNotFoundException.class, () ->
                 commentService.createComment("Test Comment", mockTopic.getTopicId(), mockUser.getUserId()));
         verify(commentRepository, never()).save(any(Comment.class));
+        verify(topicRepository, never()).commentAdded(anyLong(), any());
+    }
+
+    @Test
+    void subscribeToTopicSuccessfully() throws TopicNotFoundException {
+        // Arrange
+        SseEmitter emitter = new SseEmitter();
+        when(topicRepository.existsById(mockTopic.getTopicId())).thenReturn(true);
+        when(forumLiveHub.subscribe(mockTopic.getTopicId())).thenReturn(emitter);
+
+        // Act
+        SseEmitter result = commentService.subscribe(mockTopic.getTopicId());
+
+        // Assert
+        assertSame(emitter, result);
+    }
+
+    @Test
+    void subscribeToTopicTopicNotFound() {
+        // Arrange
+        when(topicRepository.existsById(mockTopic.getTopicId())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(TopicNotFoundException.class, () -> commentService.subscribe(mockTopic.getTopicId()));
+        verify(forumLiveHub, never()).subscribe(anyLong());
     }
-}
\ No newline at end of file
+}
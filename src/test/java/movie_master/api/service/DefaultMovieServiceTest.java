@@ -0,0 +1,312 @@
+package movie_master.api.service;
+
+import movie_master.api.cache.GenreRegistry;
+import movie_master.api.cache.MovieDetailCache;
+import movie_master.api.cache.SearchCountCache;
+import movie_master.api.cache.MovieDetailCache.CachedMovie;
+import movie_master.api.dto.MovieCardDto;
+import movie_master.api.dto.MovieDetailDto;
+import movie_master.api.dto.MovieGenreDto;
+import movie_master.api.dto.MoviePageDto;
+import movie_master.api.dto.MovieSearchPageDto;
+import movie_master.api.exception.DuplicateMovieException;
+import movie_master.api.exception.GenreNotFoundException;
+import movie_master.api.exception.GenresNotLoadedException;
+import movie_master.api.exception.InvalidCursorException;
+import movie_master.api.model.Genre;
+import movie_master.api.model.Movie;
+import movie_master.api.pagination.KeysetCursor;
+import movie_master.api.repository.MovieRepository;
+import movie_master.api.request.GenreMatch;
+import movie_master.api.request.MovieSort;
+import movie_master.api.search.MovieSearchIndex;
+import movie_master.api.search.MovieSearchResult;
+import movie_master.api.search.TitleSuggester;
+import movie_master.api.tmdb.CatalogSyncedEvent;
+import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultMovieServiceTest {
+
+    @Mock private MovieRepository movieRepository;
+    @Mock private GenreRegistry genreRegistry;
+    @Mock private MovieSearchIndex movieSearchIndex;
+    @Mock private TitleSuggester titleSuggester;
+    @Mock private SearchCountCache searchCountCache;
+    @Mock private MovieDetailCache movieDetailCache;
+    @InjectMocks private DefaultMovieService movieService;
+
+    EasyRandom easyRandom = new EasyRandom();
+
+    private final Genre action = new Genre(28, "Action");
+    private final Genre thriller = new Genre(53, "Thriller");
+
+    private static MovieCardDto card(long id, String title, double tmdbRating) {
+        return new MovieCardDto(id, title, "there", null, tmdbRating, null);
+    }
+
+    @Test
+    void findsMoviesWithAnyOfTheGenres() throws GenreNotFoundException, InvalidCursorException {
+        // Given
+        Set<String> genreNames = Set.of("action", "thriller");
+        MovieCardDto heat = card(3, "Heat", 8.3);
+        MovieCardDto ronin = card(7, "Ronin", 6.9);
+
+        Mockito.when(genreRegistry.findByName("action")).thenReturn(Optional.of(action));
+        Mockito.when(genreRegistry.findByName("thriller")).thenReturn(Optional.of(thriller));
+        Mockito.when(movieRepository.findByGenresOrderByTitle(Set.of(28L, 53L), 1, null, null,
+                PageRequest.of(0, 11))).thenReturn(List.of(heat, ronin));
+        Mockito.when(movieRepository.findGenreIdsByMovieIdIn(List.of(3L, 7L))).thenReturn(List.of(
+                new MovieGenreDto(3, 28), new MovieGenreDto(3, 53), new MovieGenreDto(7, 28)));
+
+        // When
+        MoviePageDto result = movieService.findByGenres(genreNames, GenreMatch.ANY, MovieSort.TITLE, null, 10);
+
+        // Then
+        assertEquals(new MoviePageDto(List.of(heat.withGenreIds(List.of(28L, 53L)), ronin.withGenreIds(List.of(28L))),
+                null), result);
+    }
+
+    @Test
+    void findsNextPageOfMoviesWithAllOfTheGenres() throws GenreNotFoundException, InvalidCursorException {
+        // Given
+        Set<String> genreNames = Set.of("Action", "Thriller");
+        MovieCardDto first = card(3, "Heat", 8.3);
+        MovieCardDto second = card(7, "Ronin", 6.9);
+        MovieCardDto third = card(5, "Collateral", 6.9);
+        String cursor = KeysetCursor.of(1, 8.5).encode();
+
+        Mockito.when(genreRegistry.findByName("Action")).thenReturn(Optional.of(action));
+        Mockito.when(genreRegistry.findByName("Thriller")).thenReturn(Optional.of(thriller));
+        Mockito.when(movieRepository.findByGenresOrderByRating(Set.of(28L, 53L), 2, 8.5, 1L,
+                PageRequest.of(0, 3))).thenReturn(List.of(first, second, third));
+
+        // When
+        MoviePageDto result = movieService.findByGenres(genreNames, GenreMatch.ALL, MovieSort.RATING, cursor, 2);
+
+        // Then
+        assertEquals(List.of(first, second), result.items());
+        assertEquals(KeysetCursor.of(7, 6.9), KeysetCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void pagesByReleaseDateContinueAmongMoviesWithoutDate() throws GenreNotFoundException, InvalidCursorException {
+        // Given
+        MovieCardDto unreleased = card(4, "Unreleased", 0);
+        MovieCardDto untitled = card(6, "Untitled", 0);
+
+        Mockito.when(genreRegistry.findByName("action")).thenReturn(Optional.of(action));
+        Mockito.when(movieRepository.findByGenresOrderByReleaseDate(Set.of(28L), 1, null, 2L,
+                PageRequest.of(0, 2))).thenReturn(List.of(unreleased, untitled));
+
+        // When
+        MoviePageDto result = movieService.findByGenres(Set.of("action"), GenreMatch.ANY, MovieSort.RELEASE_DATE,
+                KeysetCursor.of(2).encode(), 1);
+
+        // Then
+        assertEquals(List.of(unreleased), result.items());
+        assertEquals(KeysetCursor.of(4), KeysetCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void cannotFindMoviesByUnknownGenre() {
+        // Given
+        Set<String> genreNames = Set.of("Mockumentary");
+
+        Mockito.when(genreRegistry.findByName("Mockumentary")).thenReturn(Optional.empty());
+
+        // When -> Then
+        assertThrows(GenreNotFoundException.class,
+                () -> movieService.findByGenres(genreNames, GenreMatch.ANY, MovieSort.TITLE, null, 10));
+        Mockito.verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    void findsAllGenresFromRegistry() throws GenresNotLoadedException {
+        // Given
+        Mockito.when(genreRegistry.getAll()).thenReturn(List.of(action, thriller));
+
+        // When
+        List<Genre> result = movieService.findAllGenres();
+
+        // Then
+        assertEquals(List.of(action, thriller), result);
+    }
+
+    @Test
+    void cannotFindGenresWhenNoneAreLoaded() {
+        // Given
+        Mockito.when(genreRegistry.getAll()).thenReturn(List.of());
+
+        // When -> Then
+        assertThrows(GenresNotLoadedException.class, () -> movieService.findAllGenres());
+    }
+
+    @Test
+    void searchLoadsMatchesInRankOrder() {
+        // Given
+        MovieCardDto first = card(2, "Heat", 8);
+        MovieCardDto second = card(1, "Heathers", 7);
+
+        Mockito.when(movieSearchIndex.search("heat", 10, 10)).thenReturn(new MovieSearchResult(List.of(2L, 1L), 12));
+        Mockito.when(movieRepository.findCardsByIdIn(List.of(2L, 1L))).thenReturn(List.of(second, first));
+
+        // When
+        List<MovieCardDto> result = movieService.findByTitleContaining("heat", 1);
+
+        // Then
+        assertEquals(List.of(first, second), result);
+    }
+
+    @Test
+    void searchFallsBackToFuzzyMatchingWhenNothingMatchesExactly() {
+        // Given
+        MovieCardDto movie = card(278, "The Shawshank Redemption", 8.7);
+
+        Mockito.when(movieSearchIndex.search("shawshenk", 0, 10)).thenReturn(new MovieSearchResult(List.of(), 0));
+        Mockito.when(movieSearchIndex.searchFuzzy("shawshenk", 0, 10)).thenReturn(new MovieSearchResult(List.of(278L), 1));
+        Mockito.when(movieRepository.findCardsByIdIn(List.of(278L))).thenReturn(List.of(movie));
+
+        // When
+        List<MovieCardDto> result = movieService.findByTitleContaining("shawshenk", 0);
+
+        // Then
+        assertEquals(List.of(movie), result);
+    }
+
+    @Test
+    void searchReturnsPageWithCachedTotalAndNextCursor() throws InvalidCursorException {
+        // Given
+        MovieCardDto first = card(2, "Heat", 8);
+        MovieCardDto second = card(1, "Heathers", 7);
+        KeysetCursor next = KeysetCursor.of(1, 3.5f);
+
+        Mockito.when(searchCountCache.get(eq("heat"), eq(false), any(LongSupplier.class))).thenReturn(12L);
+        Mockito.when(movieSearchIndex.search("heat", (KeysetCursor) null, 2))
+                .thenReturn(new MovieSearchResult(List.of(2L, 1L), 12, next));
+        Mockito.when(movieRepository.findCardsByIdIn(List.of(2L, 1L))).thenReturn(List.of(second, first));
+
+        // When
+        MovieSearchPageDto result = movieService.search("heat", null, 2);
+
+        // Then
+        assertEquals(new MovieSearchPageDto(List.of(first, second), 12, false, next.encode()), result);
+    }
+
+    @Test
+    void searchFallsBackToFuzzyPageWhenNothingMatchesExactly() throws InvalidCursorException {
+        // Given
+        MovieCardDto movie = card(278, "The Shawshank Redemption", 8.7);
+
+        Mockito.when(searchCountCache.get(eq("shawshenk"), eq(false), any(LongSupplier.class))).thenReturn(0L);
+        Mockito.when(searchCountCache.get(eq("shawshenk"), eq(true), any(LongSupplier.class))).thenReturn(1L);
+        Mockito.when(movieSearchIndex.searchFuzzy("shawshenk", (KeysetCursor) null, 10))
+                .thenReturn(new MovieSearchResult(List.of(278L), 1));
+        Mockito.when(movieRepository.findCardsByIdIn(List.of(278L))).thenReturn(List.of(movie));
+
+        // When
+        MovieSearchPageDto result = movieService.search("shawshenk", null, 10);
+
+        // Then
+        assertEquals(List.of(movie), result.items());
+        assertEquals(1, result.total());
+        assertTrue(result.fuzzy());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void searchRejectsInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> movieService.search("heat", "not a cursor", 10));
+        Mockito.verifyNoInteractions(movieSearchIndex);
+    }
+
+    @Test
+    void findsMovieDetailsWithGenreIds() {
+        // Given
+        MovieDetailDto heat = new MovieDetailDto(3, "Heat", "A group of professional bank robbers", null, "en",
+                "there", 8.3, null);
+        Mockito.when(movieDetailCache.get(eq(3L), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, Optional<MovieDetailDto>>>getArgument(1).apply(3L)
+                        .map(movie -> new CachedMovie(movie, "\"etag\"")));
+        Mockito.when(movieRepository.findDetailById(3L)).thenReturn(Optional.of(heat));
+        Mockito.when(movieRepository.findGenreIdsByMovieIdIn(List.of(3L))).thenReturn(List.of(new MovieGenreDto(3, 80)));
+
+        // When
+        Optional<CachedMovie> result = movieService.findCachedById(3L);
+
+        // Then
+        assertEquals(heat.withGenreIds(List.of(80L)), result.orElseThrow().movie());
+    }
+
+    @Test
+    void savedAndDeletedMoviesAreSyncedToSearchIndexAndSuggestions() throws DuplicateMovieException {
+        // Given
+        Movie movie = new Movie(1, "Heat", "", null, "en", "there", 8);
+        Mockito.when(movieRepository.findByTitle("Heat")).thenReturn(Optional.empty());
+        Mockito.when(movieRepository.save(movie)).thenReturn(movie);
+
+        // When
+        movieService.save(movie);
+        movieService.deleteById(1L);
+
+        // Then
+        Mockito.verify(movieSearchIndex).index(movie);
+        Mockito.verify(movieSearchIndex).remove(1L);
+        Mockito.verify(titleSuggester).add(movie);
+        Mockito.verify(titleSuggester).remove(1L);
+        Mockito.verify(searchCountCache, Mockito.times(2)).invalidateAll();
+        Mockito.verify(movieDetailCache, Mockito.times(2)).evict(1L);
+    }
+
+    @Test
+    void rebuildsSearchIndexAndSuggestionsFromOneLoad() {
+        // Given
+        List<Movie> movies = easyRandom.objects(Movie.class, 3).toList();
+        Mockito.when(movieRepository.findAll()).thenReturn(movies);
+
+        // When
+        movieService.rebuildSearch();
+
+        // Then
+        Mockito.verify(movieRepository).findAll();
+        Mockito.verify(movieSearchIndex).rebuild(movies);
+        Mockito.verify(titleSuggester).rebuild(movies);
+    }
+
+    @Test
+    void refreshesSearchAndCachesAfterCatalogSync() {
+        // Given
+        List<Movie> movies = List.of(easyRandom.nextObject(Movie.class));
+        Mockito.when(movieRepository.findAll()).thenReturn(movies);
+
+        // When
+        movieService.catalogSynced(new CatalogSyncedEvent(List.of(278L, 238L)));
+
+        // Then
+        Mockito.verify(movieDetailCache).evict(278L);
+        Mockito.verify(movieDetailCache).evict(238L);
+        Mockito.verify(searchCountCache).invalidateAll();
+        Mockito.verify(movieSearchIndex).rebuild(movies);
+        Mockito.verify(titleSuggester).rebuild(movies);
+    }
+}
@@ -1,21 +1,32 @@
 package movie_master.api.service;
 
+import movie_master.api.cache.UserCache;
 import movie_master.api.dto.UserDto;
 import movie_master.api.dto.UserMovie.UserMovieDto;
+import movie_master.api.dto.UserMovie.WatchlistItemDto;
+import movie_master.api.dto.UserMovie.WatchlistPageDto;
 import movie_master.api.exception.EmailTakenException;
+import movie_master.api.exception.InvalidCursorException;
+import movie_master.api.exception.MovieNotFoundException;
 import movie_master.api.exception.UserMovieNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
 import movie_master.api.exception.UsernameTakenException;
+import movie_master.api.jwt.TokenVersionCache;
 import movie_master.api.mapper.UserDtoMapper;
 import movie_master.api.mapper.UserMovieDtoMapper;
 import movie_master.api.model.Movie;
 import movie_master.api.model.User;
 import movie_master.api.model.UserMovie;
 import movie_master.api.repository.FriendshipRepository;
+import movie_master.api.repository.MovieRepository;
+import movie_master.api.repository.ReviewRepository;
 import movie_master.api.repository.UserMovieRepository;
 import movie_master.api.model.role.Role;
 import movie_master.api.repository.UserRepository;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.request.RegisterUserRequest;
+import movie_master.api.request.WatchlistPageRequest;
+import movie_master.api.request.WatchlistSort;
 import movie_master.utils.TestUtils;
 import org.jeasy.random.EasyRandom;
 import org.junit.jupiter.api.Test;
@@ -24,6 +35,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.Instant;
@@ -31,20 +43,24 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.doNothing;
 
 @ExtendWith(MockitoExtension.class)
 public class DefaultUserServiceTest {
 
-    //TODO mock movie repository
     @Mock private UserRepository userRepository;
     @Mock private UserMovieRepository userMovieRepository;
+    @Mock private MovieRepository movieRepository;
+    @Mock private ReviewRepository reviewRepository;
     @Mock private FriendshipRepository friendshipRepository;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private UserDtoMapper userDtoMapper;
     @Mock private UserMovieDtoMapper userMovieDtoMapper;
+    @Mock private TokenVersionCache tokenVersionCache;
+    @Mock private UserCache userCache;
+    @Mock private MovieRatingService movieRatingService;
     @InjectMocks private DefaultUserService defaultUserService;
 
     private final RegisterUserRequest registerRequest = new RegisterUserRequest("mock@gmail.com",
@@ -171,11 +187,10 @@ public class DefaultUserServiceTest {
         User user = new User("example@test.mail", "User McNameface", "password1234", Role.ROLE_USER, true, false);
         user.setUserId(userId);
         Movie movie1 = new Movie(1, "Pulp Fiction", "Fun adventures", Date.from(Instant.now()), "en-US", "there", 9);
-        UserMovie userMovie = new UserMovie(user, movie1, false);
-        user.addMovieToWatchlist(userMovie);
+        UserMovie userMovie = new UserMovie(user, movie1, true);
 
-        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        Mockito.when(userRepository.save(user)).thenReturn(user);
+        Mockito.when(userMovieRepository.updateWatchedByUserIdAndMovieId(userId, movieId, true)).thenReturn(1);
+        Mockito.when(userMovieRepository.findByUserIdAndMovieId(userId, movieId)).thenReturn(Optional.of(userMovie));
 
         // When
         UserMovie resultUserMovie = defaultUserService.updateWatchItemStatus(userId, movieId, true);
@@ -183,6 +198,7 @@ public class DefaultUserServiceTest {
         // Then
         assertEquals(userMovie, resultUserMovie);
         assertTrue(resultUserMovie.isWatched());
+        Mockito.verify(userRepository, Mockito.never()).findById(userId);
     }
 
     @Test
@@ -191,51 +207,44 @@ public class DefaultUserServiceTest {
         Long userId = 1337L;
         Long movieId = 7L;
 
-        User user = new User("example@test.mail", "User McNameface", "password1234", Role.ROLE_USER, true, false);
-        user.setUserId(userId);
-        Movie movie1 = new Movie(1, "Pulp Fiction", "Fun adventures", Date.from(Instant.now()), "en-US", "there", 9);
-        UserMovie userMovie = new UserMovie(user, movie1, false);
-        user.addMovieToWatchlist(userMovie);
-
-        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        Mockito.when(userMovieRepository.updateWatchedByUserIdAndMovieId(userId, movieId, true)).thenReturn(0);
+        Mockito.when(userRepository.existsById(userId)).thenReturn(true);
 
-        // When
+        // When -> Then
         assertThrows(UserMovieNotFoundException.class, () -> defaultUserService.updateWatchItemStatus(userId, movieId, true));
-
-        // Then
-        assertFalse(userMovie.isWatched());
     }
 
     @Test
-    void succesRemoveFromWatchlist() throws UserNotFoundException, UserMovieNotFoundException{
-
+    void failUpdateWatchListWhenUserNotFound() {
         // Given
         Long userId = 1337L;
-        Long removedMovieId = 1L;
+        Long movieId = 1L;
 
-        final int CORRECT_MOVIES_AMOUNT = 2;
+        Mockito.when(userMovieRepository.updateWatchedByUserIdAndMovieId(userId, movieId, true)).thenReturn(0);
+        Mockito.when(userRepository.existsById(userId)).thenReturn(false);
 
-        User user = new User("example@test.mail", "User McNameface", "password1234", Role.ROLE_USER, true, false);
-        user.setUserId(userId);
+        // When -> Then
+        assertThrows(UserNotFoundException.class, () -> defaultUserService.updateWatchItemStatus(userId, movieId, true));
+    }
 
-        Movie movie1 = new Movie(1, "Pulp Fiction", "Fun adventures", Date.from(Instant.now()), "en-US", "there", 9);
-        Movie movie2 = new Movie(2, "Lock Stock & Two Smoking Barrels", "Fun adventures", Date.from(Instant.now()), "en-EN", "there", 9);
-        Movie movie3 = new Movie(3, "Se7en", "Fun adventures", Date.from(Instant.now()), "en-US", "there", 9);
+    @Test
+    void succesRemoveFromWatchlist() throws UserNotFoundException, UserMovieNotFoundException{
 
-        UserMovie deletedUserMovie = new UserMovie(user, movie1, false);
-        user.addMovieToWatchlist(deletedUserMovie);
-        user.addMovieToWatchlist(new UserMovie(user, movie2, false));
-        user.addMovieToWatchlist(new UserMovie(user, movie3, false));
+        // Given
+        Long userId = 1337L;
+        Long removedMovieId = 1L;
 
-        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        doNothing().when(userMovieRepository).delete(deletedUserMovie);
+        Mockito.when(reviewRepository.findRatingByUserAndMovie(userId, removedMovieId)).thenReturn(Optional.of(7.5));
+        Mockito.when(userMovieRepository.deleteByUserIdAndMovieId(userId, removedMovieId)).thenReturn(1);
 
         // When
         defaultUserService.removeMovieFromWatchlist(userId, removedMovieId);
 
-        // Verify the (now shrinked) size of the watchlist
-        assertEquals(CORRECT_MOVIES_AMOUNT, user.getWatchList().size());
-        assertFalse(user.getWatchList().contains(deletedUserMovie));
+        // Then
+        Mockito.verify(reviewRepository).deleteByUserAndMovie(userId, removedMovieId);
+        Mockito.verify(movieRatingService).reviewRemoved(removedMovieId, 7.5);
+        Mockito.verify(userMovieRepository).deleteByUserIdAndMovieId(userId, removedMovieId);
+        Mockito.verify(userRepository, Mockito.never()).findById(userId);
     }
 
     @Test
@@ -245,32 +254,37 @@ public class DefaultUserServiceTest {
         Long userId = 1337L;
         Long removedMovieId = 5L;
 
-        final int CORRECT_MOVIES_AMOUNT = 3;
+        Mockito.when(reviewRepository.findRatingByUserAndMovie(userId, removedMovieId)).thenReturn(Optional.empty());
+        Mockito.when(userMovieRepository.deleteByUserIdAndMovieId(userId, removedMovieId)).thenReturn(0);
+        Mockito.when(userRepository.existsById(userId)).thenReturn(true);
+
+        // When (also 'then'; since it checks if it throws the error)
+        assertThrows(UserMovieNotFoundException.class, () -> defaultUserService.removeMovieFromWatchlist(userId, removedMovieId));
+    }
+
+    @Test
+    void addExistingMovieToWatchlistReturnsExistingItem() throws UserNotFoundException, MovieNotFoundException {
+        // Given
+        Long userId = 1337L;
+        Long movieId = 1L;
 
         User user = new User("example@test.mail", "User McNameface", "password1234", Role.ROLE_USER, true, false);
         user.setUserId(userId);
-
         Movie movie1 = new Movie(1, "Pulp Fiction", "Fun adventures", Date.from(Instant.now()), "en-US", "there", 9);
-        Movie movie2 = new Movie(2, "Lock Stock & Two Smoking Barrels", "Fun adventures", Date.from(Instant.now()), "en-EN", "there", 9);
-        Movie movie3 = new Movie(3, "Se7en", "Fun adventures", Date.from(Instant.now()), "en-US", "there", 9);
-
-        UserMovie attemptedDeletedUserMovie = new UserMovie(user, movie1, false);
-        user.addMovieToWatchlist(attemptedDeletedUserMovie);
-        user.addMovieToWatchlist(new UserMovie(user, movie2, false));
-        user.addMovieToWatchlist(new UserMovie(user, movie3, false));
+        UserMovie userMovie = new UserMovie(user, movie1, false);
 
         Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        Mockito.when(movieRepository.findById(movieId)).thenReturn(Optional.of(movie1));
+        Mockito.when(userMovieRepository.findByUserIdAndMovieId(userId, movieId)).thenReturn(Optional.of(userMovie));
 
-        // When (also 'then'; since it checks if it throws the error)
-        assertThrows(UserMovieNotFoundException.class, () -> defaultUserService.removeMovieFromWatchlist(userId, removedMovieId));
+        // When
+        UserMovie result = defaultUserService.addMovieToWatchlist(userId, movieId);
 
         // Then
-        // Verify the (still unchanged) size of the watchlist
-        assertEquals(CORRECT_MOVIES_AMOUNT, user.getWatchList().size());
-        assertTrue(user.getWatchList().contains(attemptedDeletedUserMovie));
+        assertEquals(userMovie, result);
+        Mockito.verify(userMovieRepository, Mockito.never()).save(Mockito.any());
     }
 
-
     @Test
     void delete_user_succes() throws UserNotFoundException {
         Long userId = 1L;
@@ -284,6 +298,7 @@ public class DefaultUserServiceTest {
 
         // Verify if the correct methods are called.
         Mockito.verify(userRepository, Mockito.times(1)).existsById(userId);
+        Mockito.verify(movieRatingService, Mockito.times(1)).reviewsOfUserRemoved(userId);
         Mockito.verify(friendshipRepository, Mockito.times(1)).deleteFriendshipByUser(userId);
         Mockito.verify(userRepository, Mockito.times(1)).deleteById(userId);
 
@@ -333,6 +348,9 @@ public class DefaultUserServiceTest {
 
         // Then
         assertTrue(bannedUser.isBanned());
+        assertEquals(1, bannedUser.getTokenVersion());
+        Mockito.verify(tokenVersionCache).update(userId, 1);
+        Mockito.verify(userCache).evict(userId);
     }
 
     @Test
@@ -346,4 +364,66 @@ public class DefaultUserServiceTest {
          () -> defaultUserService.updateUserBannedStatus(userId, true));
     }
 
+    @Test
+    void retrieveWatchlistPageWithNextCursor() throws UserNotFoundException, InvalidCursorException {
+        // Given
+        Long userId = 1337L;
+        WatchlistItemDto first = new WatchlistItemDto(3, 30, "Se7en", "there", null, 8.6, null, false, null);
+        WatchlistItemDto second = new WatchlistItemDto(2, 20, "Pulp Fiction", "there", null, 8.9, null, true, 9.0);
+        WatchlistItemDto third = new WatchlistItemDto(1, 10, "Heat", "there", null, 8.3, null, false, null);
+        WatchlistPageRequest pageRequest = new WatchlistPageRequest(WatchlistSort.ADDED, null, null, null, null, 2);
+
+        Mockito.when(userMovieRepository.findWatchlistPageByAdded(userId, null, null, null, null, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second, third));
+
+        // When
+        WatchlistPageDto result = defaultUserService.getWatchListPage(userId, pageRequest);
+
+        // Then
+        assertEquals(List.of(first, second), result.items());
+        assertEquals(KeysetCursor.of(2).encode(), result.nextCursor());
+    }
+
+    @Test
+    void retrieveWatchlistPageFromCursor() throws UserNotFoundException, InvalidCursorException {
+        // Given
+        Long userId = 1337L;
+        WatchlistItemDto item = new WatchlistItemDto(1, 10, "Heat", "there", null, 8.3, null, false, null);
+        String cursor = KeysetCursor.of(2, "Pulp Fiction").encode();
+        WatchlistPageRequest pageRequest = new WatchlistPageRequest(WatchlistSort.TITLE, false, null, null, cursor, 2);
+
+        Mockito.when(userMovieRepository.findWatchlistPageByTitle(userId, false, null, null, "Pulp Fiction", 2L,
+                PageRequest.of(0, 3))).thenReturn(List.of(item));
+
+        // When
+        WatchlistPageDto result = defaultUserService.getWatchListPage(userId, pageRequest);
+
+        // Then
+        assertEquals(List.of(item), result.items());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void failRetrievingWatchlistPage() {
+        // Given
+        Long userId = 1337L;
+        WatchlistPageRequest pageRequest = new WatchlistPageRequest(WatchlistSort.RATING, null, null, null, null, 20);
+
+        Mockito.when(userMovieRepository.findWatchlistPageByRating(userId, null, null, null, null, null,
+                PageRequest.of(0, 21))).thenReturn(List.of());
+        Mockito.when(userRepository.existsById(userId)).thenReturn(false);
+
+        // When -> Then
+        assertThrows(UserNotFoundException.class, () -> defaultUserService.getWatchListPage(userId, pageRequest));
+    }
+
+    @Test
+    void failRetrievingWatchlistPageWithInvalidCursor() {
+        // Given
+        WatchlistPageRequest pageRequest = new WatchlistPageRequest(WatchlistSort.ADDED, null, null, null, "%%%", 20);
+
+        // When -> Then
+        assertThrows(InvalidCursorException.class, () -> defaultUserService.getWatchListPage(1337L, pageRequest));
+    }
+
 }
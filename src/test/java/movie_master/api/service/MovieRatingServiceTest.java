@@ -0,0 +1,85 @@
+package movie_master.api.service;
+
+import movie_master.api.cache.MovieDetailCache;
+import movie_master.api.dto.MovieRatingDto;
+import movie_master.api.repository.MovieRepository;
+import movie_master.api.repository.ReviewRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class MovieRatingServiceTest {
+
+    @Mock private MovieRepository movieRepository;
+    @Mock private ReviewRepository reviewRepository;
+    @Mock private MovieDetailCache movieDetailCache;
+    @InjectMocks private MovieRatingService movieRatingService;
+
+    @Test
+    void addedReviewIncrementsAggregates() {
+        // When
+        movieRatingService.reviewAdded(1L, 8.0);
+
+        // Then
+        Mockito.verify(movieRepository).adjustRating(1L, 8.0, 1);
+        Mockito.verify(movieDetailCache).evict(1L);
+    }
+
+    @Test
+    void changedReviewOnlyAdjustsSum() {
+        // When
+        movieRatingService.reviewChanged(1L, 8.0, 6.5);
+
+        // Then
+        Mockito.verify(movieRepository).adjustRating(1L, -1.5, 0);
+    }
+
+    @Test
+    void unchangedRatingDoesNotUpdateMovie() {
+        // When
+        movieRatingService.reviewChanged(1L, 8.0, 8.0);
+
+        // Then
+        Mockito.verifyNoInteractions(movieRepository, movieDetailCache);
+    }
+
+    @Test
+    void removedReviewDecrementsAggregates() {
+        // When
+        movieRatingService.reviewRemoved(1L, 8.0);
+
+        // Then
+        Mockito.verify(movieRepository).adjustRating(1L, -8.0, -1);
+    }
+
+    @Test
+    void reviewsOfUserAreRemovedFromEveryMovie() {
+        // Given
+        long userId = 1337L;
+        Mockito.when(reviewRepository.findRatingsByUser(userId))
+                .thenReturn(List.of(new MovieRatingDto(1L, 8.0), new MovieRatingDto(2L, 3.5)));
+
+        // When
+        movieRatingService.reviewsOfUserRemoved(userId);
+
+        // Then
+        Mockito.verify(movieRepository).adjustRating(1L, -8.0, -1);
+        Mockito.verify(movieRepository).adjustRating(2L, -3.5, -1);
+    }
+
+    @Test
+    void recomputeAllRepairsEveryMovie() {
+        // When
+        movieRatingService.recomputeAll();
+
+        // Then
+        Mockito.verify(movieRepository).recomputeRatingAggregates();
+        Mockito.verify(movieDetailCache).invalidateAll();
+    }
+}
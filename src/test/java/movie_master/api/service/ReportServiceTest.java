@@ -1,8 +1,10 @@
 package movie_master.api.service;
 
+import movie_master.api.cache.UserCache;
 import movie_master.api.dto.ReportDto;
 import movie_master.api.exception.ReportNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
+import movie_master.api.jwt.TokenVersionCache;
 import movie_master.api.mapper.ReportDtoMapper;
 import movie_master.api.model.Report;
 import movie_master.api.model.User;
@@ -33,6 +35,9 @@ class ReportServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private ReviewRepository reviewRepository;
     @Mock private ReportDtoMapper reportDtoMapper;
+    @Mock private TokenVersionCache tokenVersionCache;
+    @Mock private UserCache userCache;
+    @Mock private MovieRatingService movieRatingService;
     @InjectMocks ReportService service;
 
     EasyRandom easyRandom = new EasyRandom();
@@ -143,6 +148,9 @@ class ReportServiceTest {
 
         // Assert
         Mockito.verify(userRepository).save(userToBan);
+        Mockito.verify(tokenVersionCache).update(userToBan.getUserId(), userToBan.getTokenVersion());
+        Mockito.verify(userCache).evict(userToBan.getUserId());
+        Mockito.verify(movieRatingService).reviewsOfUserRemoved(userToBan.getUserId());
         Mockito.verify(reviewRepository).deleteByUser(userToBan.getUserId());
         Mockito.verify(reportRepository).deleteByUser(userToBan.getUserId());
     }
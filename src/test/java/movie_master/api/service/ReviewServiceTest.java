@@ -1,6 +1,8 @@
 package movie_master.api.service;
 
 import movie_master.api.dto.ReviewDto;
+import movie_master.api.dto.ReviewPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.MovieNotFoundException;
 import movie_master.api.exception.MovieNotInWatchlistException;
 import movie_master.api.exception.UserNotFoundException;
@@ -9,12 +11,11 @@ import movie_master.api.model.Movie;
 import movie_master.api.model.Review;
 import movie_master.api.model.User;
 import movie_master.api.model.UserMovie;
-import movie_master.api.model.role.Role;
+import movie_master.api.pagination.KeysetCursor;
 import movie_master.api.repository.ReviewRepository;
 import movie_master.api.repository.UserMovieRepository;
 import movie_master.api.repository.UserRepository;
 import movie_master.api.request.PostReviewRequest;
-import movie_master.utils.TestUtils;
 import org.jeasy.random.EasyRandom;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,14 +23,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static movie_master.utils.TestUtils.createRandomRecord;
+import static movie_master.utils.TestUtils.createMultipleRandomRecords;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,72 +41,60 @@ class ReviewServiceTest {
     @Mock private ReviewRepository reviewRepository;
     @Mock private UserRepository userRepository;
     @Mock private UserMovieRepository userMovieRepository;
+    @Mock private MovieRatingService movieRatingService;
     @Mock private ReviewDtoMapper mapper;
     @InjectMocks private ReviewService reviewService;
 
     EasyRandom easyRandom = new EasyRandom();
 
     @Test
-    void canFindAll() {
+    void canFindLatestWithNextCursor() throws InvalidCursorException {
         // Given
-        int expectedAmount = 100;
-        List<Review> storedReviews = easyRandom.objects(Review.class, expectedAmount).toList();
-        ReviewDto mapped = createRandomRecord(ReviewDto.class, easyRandom);
-        ArrayList<ReviewDto> expectedResult = new ArrayList<>();
-        for (int i = 0; i < expectedAmount; i++) {
-            expectedResult.add(mapped);
-        }
+        int pageSize = 5;
+        List<ReviewDto> stored = createMultipleRandomRecords(ReviewDto.class, easyRandom, pageSize + 1);
 
-        Mockito.when(reviewRepository.findAll()).thenReturn(storedReviews);
-        Mockito.when(mapper.mapToDTO(Mockito.any())).thenReturn(mapped);
+        Mockito.when(reviewRepository.findLatest(null, null, PageRequest.of(0, pageSize + 1))).thenReturn(stored);
 
         // When
-        List<ReviewDto> result = reviewService.findAll();
+        ReviewPageDto result = reviewService.findLatest(null, pageSize);
 
         // Then
-        assertEquals(result, expectedResult.stream().toList());
+        ReviewDto last = stored.get(pageSize - 1);
+        assertEquals(stored.subList(0, pageSize), result.items());
+        assertEquals(KeysetCursor.of(last.id(), last.reviewDate()).encode(), result.nextCursor());
     }
 
     @Test
     void canFindByAmount() {
         // Given
         int desiredAmount = 5;
-        int actualAmount = 10;
-        List<Review> storedReviews = easyRandom.objects(Review.class, actualAmount).toList();
-        ReviewDto mapped = createRandomRecord(ReviewDto.class, easyRandom);
-        ArrayList<ReviewDto> expectedResult = new ArrayList<>();
-        for (int i = 0; i < desiredAmount; i++) {
-            expectedResult.add(mapped);
-        }
+        List<ReviewDto> stored = createMultipleRandomRecords(ReviewDto.class, easyRandom, desiredAmount);
 
-        Mockito.when(reviewRepository.findAll()).thenReturn(storedReviews);
-        Mockito.when(mapper.mapToDTO(Mockito.any())).thenReturn(mapped);
+        Mockito.when(reviewRepository.findLatest(null, null, PageRequest.of(0, desiredAmount))).thenReturn(stored);
 
         // When
         List<ReviewDto> result = reviewService.findByAmount(desiredAmount);
 
         // Then
-        assertEquals(result, expectedResult.stream().toList());
+        assertEquals(stored, result);
     }
 
     @Test
-    void canFindByMovie() {
+    void canFindByMovieFromCursor() throws InvalidCursorException {
         // Arrange
-        int streamSize = 10;
         long id = easyRandom.nextLong();
-        List<Review> stored = easyRandom.objects(Review.class, streamSize).toList();
-        List<ReviewDto> mapped = TestUtils.createMultipleRandomRecords(ReviewDto.class, easyRandom, streamSize);
+        LocalDateTime afterDate = LocalDateTime.now();
+        String cursor = KeysetCursor.of(42, afterDate).encode();
+        List<ReviewDto> stored = createMultipleRandomRecords(ReviewDto.class, easyRandom, 3);
 
-        Mockito.when(userMovieRepository.findReviewsByMovieId(id)).thenReturn(stored);
-        for (int i = 0; i < streamSize; i++) {
-            Mockito.when(mapper.mapToDTO(stored.get(i))).thenReturn(mapped.get(i));
-        }
+        Mockito.when(reviewRepository.findLatestByMovie(id, afterDate, 42L, PageRequest.of(0, 21))).thenReturn(stored);
 
         // Act
-        List<ReviewDto> result = reviewService.findByMovie(id);
+        ReviewPageDto result = reviewService.findByMovie(id, cursor, 20);
 
         // Assert
-        assertEquals(mapped, result);
+        assertEquals(stored, result.items());
+        assertNull(result.nextCursor());
     }
 
     @Test
@@ -132,7 +123,8 @@ class ReviewServiceTest {
         Review storedReview = easyRandom.nextObject(Review.class);
         ReviewDto expectedResult = createRandomRecord(ReviewDto.class, easyRandom);
 
-        Mockito.when(userRepository.findById(request.userId())).thenReturn(Optional.of(user));
+        Mockito.when(userMovieRepository.findByUserIdAndMovieId(request.userId(), request.movieId()))
+                .thenReturn(Optional.of(userMovie));
         Mockito.when(reviewRepository.save(updatedReview)).thenReturn(storedReview); // any() because mocking LocalDate sucks
         Mockito.when(mapper.mapToDTO(storedReview)).thenReturn(expectedResult);
 
@@ -141,6 +133,8 @@ class ReviewServiceTest {
 
         // Then
         assertEquals(expectedResult, result);
+        Mockito.verify(movieRatingService).reviewChanged(movie.getId(), request.rating(), request.rating());
+        Mockito.verify(movieRatingService, Mockito.never()).reviewAdded(Mockito.anyLong(), Mockito.anyDouble());
     }
 
     @Test
@@ -159,7 +153,8 @@ class ReviewServiceTest {
         Review storedReview = easyRandom.nextObject(Review.class);
         ReviewDto expectedResult = createRandomRecord(ReviewDto.class, easyRandom);
 
-        Mockito.when(userRepository.findById(request.userId())).thenReturn(Optional.of(user));
+        Mockito.when(userMovieRepository.findByUserIdAndMovieId(request.userId(), request.movieId()))
+                .thenReturn(Optional.of(userMovie));
         Mockito.when(reviewRepository.save(Mockito.any())).thenReturn(storedReview); // any() because mocking LocalDate sucks
         Mockito.when(mapper.mapToDTO(storedReview)).thenReturn(expectedResult);
 
@@ -168,6 +163,9 @@ class ReviewServiceTest {
 
         // Then
         assertEquals(expectedResult, result);
+        Mockito.verify(movieRatingService).reviewAdded(movie.getId(), request.rating());
+        // The review keeps its movie, for the per-movie index
+        Mockito.verify(reviewRepository).save(Mockito.argThat(review -> review.getMovieId() == movie.getId()));
     }
 
     @Test
@@ -175,7 +173,9 @@ class ReviewServiceTest {
         // Given
         PostReviewRequest request = createRandomRecord(PostReviewRequest.class, easyRandom);
 
-        Mockito.when(userRepository.findById(request.userId())).thenReturn(Optional.empty());
+        Mockito.when(userMovieRepository.findByUserIdAndMovieId(request.userId(), request.movieId()))
+                .thenReturn(Optional.empty());
+        Mockito.when(userRepository.existsById(request.userId())).thenReturn(false);
 
         // When -> Then
         assertThrows(UserNotFoundException.class, () -> reviewService.postReview(request));
@@ -185,16 +185,10 @@ class ReviewServiceTest {
     void cannotPostReviewWhenMovieNotFound() {
         // Given
         PostReviewRequest request = createRandomRecord(PostReviewRequest.class, easyRandom);
-        User foundUser = new User(
-                easyRandom.nextObject(String.class),
-                easyRandom.nextObject(String.class),
-                easyRandom.nextObject(String.class),
-                easyRandom.nextObject(Role.class),
-                easyRandom.nextBoolean(),
-                easyRandom.nextBoolean()
-        );
 
-        Mockito.when(userRepository.findById(request.userId())).thenReturn(Optional.of(foundUser));
+        Mockito.when(userMovieRepository.findByUserIdAndMovieId(request.userId(), request.movieId()))
+                .thenReturn(Optional.empty());
+        Mockito.when(userRepository.existsById(request.userId())).thenReturn(true);
 
         // When -> Then
         assertThrows(MovieNotInWatchlistException.class, () -> reviewService.postReview(request));
@@ -206,6 +200,8 @@ class ReviewServiceTest {
         long reviewId = easyRandom.nextLong();
         Review review = easyRandom.nextObject(Review.class);
         UserMovie userMovie = Mockito.mock(UserMovie.class);
+        Movie movie = easyRandom.nextObject(Movie.class);
+        Mockito.when(userMovie.getMovie()).thenReturn(movie);
         review.setUserMovie(userMovie);
 
         Mockito.when(reviewRepository.findById(reviewId)).thenReturn(Optional.of(review));
@@ -218,6 +214,7 @@ class ReviewServiceTest {
         Mockito.verify(userMovie).setReview(null); // Verify interaction
         Mockito.verify(userMovieRepository).save(userMovie);
         Mockito.verify(reviewRepository).deleteById(reviewId);
+        Mockito.verify(movieRatingService).reviewRemoved(movie.getId(), review.getRating());
     }
 
     @Test
@@ -232,4 +229,16 @@ class ReviewServiceTest {
         Mockito.verify(reviewRepository).findById(reviewId);
         Mockito.verifyNoInteractions(userMovieRepository);
     }
+
+    @Test
+    void backfillsMovieIdsOfOlderReviews() {
+        // Given
+        Mockito.when(reviewRepository.backfillMovieIds()).thenReturn(4);
+
+        // When
+        reviewService.backfillMovieIds();
+
+        // Then
+        Mockito.verify(reviewRepository).backfillMovieIds();
+    }
 }
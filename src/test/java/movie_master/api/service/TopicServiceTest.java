@@ -1,20 +1,27 @@
 package movie_master.api.service;
 
 import movie_master.api.dto.Forum.TopicDto;
+import movie_master.api.dto.Forum.TopicPageDto;
+import movie_master.api.exception.InvalidCursorException;
 import movie_master.api.exception.TopicNotFoundException;
 import movie_master.api.exception.UserNotFoundException;
 import movie_master.api.mapper.TopicDtoMapper;
 import movie_master.api.model.Topic;
 import movie_master.api.model.User;
+import movie_master.api.pagination.KeysetCursor;
+import movie_master.api.ranking.HotTopicRanking;
 import movie_master.api.repository.TopicRepository;
 import movie_master.api.repository.UserRepository;
+import movie_master.api.request.TopicSort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +40,9 @@ class TopicServiceTest {
     @Mock
     private TopicDtoMapper topicDtoMapper;
 
+    @Mock
+    private HotTopicRanking hotTopicRanking;
+
     @InjectMocks
     private TopicService topicService;
 
@@ -54,25 +64,55 @@ class TopicServiceTest {
                 mockTopic.getDescription(),
                 mockUser.getUsername(),
                 mockUser.getProfilePicture(),
-                mockTopic.getComments().size(),
-                mockTopic.getCreatedAt()
+                mockTopic.getCommentCount(),
+                mockTopic.getCreatedAt(),
+                mockTopic.getLastActivityAt()
         );
     }
 
+    private static TopicDto topic(long id, LocalDateTime createdAt, LocalDateTime lastActivityAt) {
+        return new TopicDto(id, "Topic " + id, "Description", "user1", null, 0, createdAt, lastActivityAt);
+    }
+
     @Test
-    void getAllTopicsSuccessfully() {
+    void getTopicsByActivityWithNextCursor() throws InvalidCursorException {
         // Arrange
-        List<Topic> mockTopics = List.of(mockTopic);
-        when(topicRepository.findAll()).thenReturn(mockTopics);
-        when(topicDtoMapper.toTopicDto(mockTopic)).thenReturn(mockTopicDto);
+        LocalDateTime created = LocalDateTime.of(2026, 10, 1, 12, 0);
+        TopicDto first = topic(3, created, created.plusDays(3));
+        TopicDto second = topic(8, created, created.plusDays(2));
+        TopicDto third = topic(5, created, created.plusDays(1));
+        when(topicRepository.findPageByActivity(null, null, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second, third));
 
         // Act
-        List<TopicDto> result = topicService.getAllTopics();
+        TopicPageDto result = topicService.getTopics(TopicSort.ACTIVITY, null, 2);
 
         // Assert
-        assertEquals(List.of(mockTopicDto), result);
-        verify(topicRepository, times(1)).findAll();
-        verify(topicDtoMapper, times(1)).toTopicDto(mockTopic);
+        assertEquals(List.of(first, second), result.items());
+        assertEquals(KeysetCursor.of(8, created.plusDays(2)).encode(), result.nextCursor());
+        verify(topicRepository, never()).findAll();
+    }
+
+    @Test
+    void getNextPageOfNewestTopics() throws InvalidCursorException {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2026, 10, 1, 12, 0);
+        TopicDto last = topic(2, created.minusDays(1), created);
+        String cursor = KeysetCursor.of(7, created).encode();
+        when(topicRepository.findPageByCreation(created, 7L, PageRequest.of(0, 3))).thenReturn(List.of(last));
+
+        // Act
+        TopicPageDto result = topicService.getTopics(TopicSort.CREATED, cursor, 2);
+
+        // Assert
+        assertEquals(new TopicPageDto(List.of(last), null), result);
+    }
+
+    @Test
+    void getTopicsWithInvalidCursor() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> topicService.getTopics(TopicSort.ACTIVITY, "not a cursor", 10));
+        verifyNoInteractions(topicRepository);
     }
 
     @Test
@@ -89,6 +129,7 @@ class TopicServiceTest {
         assertEquals(mockTopicDto, result);
         verify(topicRepository, times(1)).save(any(Topic.class));
         verify(topicDtoMapper, times(1)).toTopicDto(mockTopic);
+        verify(hotTopicRanking).topicCreated(mockTopic.getTopicId(), mockTopic.getCreatedAt());
     }
 
     @Test
@@ -100,33 +141,73 @@ class TopicServiceTest {
         assertThrows(UserNotFoundException.class, () ->
                 topicService.createTopic("Test Title", "Test Description", mockUser.getUserId()));
         verify(topicRepository, never()).save(any(Topic.class));
+        verifyNoInteractions(hotTopicRanking);
+    }
+
+    @Test
+    void getHotTopicsInRankingOrder() {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2026, 10, 1, 12, 0);
+        TopicDto hottest = topic(7, created, created);
+        TopicDto second = topic(2, created, created);
+        when(hotTopicRanking.top(3)).thenReturn(List.of(7L, 4L, 2L));
+        // Topic 4 has been deleted since it was ranked
+        when(topicRepository.findSummariesByIdIn(List.of(7L, 4L, 2L))).thenReturn(List.of(second, hottest));
+
+        // Act
+        List<TopicDto> result = topicService.getHotTopics(3);
+
+        // Assert
+        assertEquals(List.of(hottest, second), result);
+    }
+
+    @Test
+    void getHotTopicsWithoutRankedTopics() {
+        // Arrange
+        when(hotTopicRanking.top(100)).thenReturn(List.of());
+
+        // Act
+        List<TopicDto> result = topicService.getHotTopics(1000);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(topicRepository, never()).findSummariesByIdIn(anyCollection());
     }
 
     @Test
     void getTopicByIdSuccessfully() throws TopicNotFoundException {
         // Arrange
         Long topicId = 1L;
-        when(topicRepository.findById(topicId)).thenReturn(Optional.of(mockTopic));
-        when(topicDtoMapper.toTopicDto(mockTopic)).thenReturn(mockTopicDto);
+        when(topicRepository.findSummaryById(topicId)).thenReturn(Optional.of(mockTopicDto));
 
         // Act
         TopicDto result = topicService.getTopicById(topicId);
 
         // Assert
         assertEquals(mockTopicDto, result);
-        verify(topicRepository, times(1)).findById(topicId);
-        verify(topicDtoMapper, times(1)).toTopicDto(mockTopic);
+        verify(topicRepository, times(1)).findSummaryById(topicId);
     }
 
     @Test
     void getTopicByIdTopicNotFound() {
         // Arrange
         Long topicId = 999L; 
-        when(topicRepository.findById(topicId)).thenReturn(Optional.empty());
+        when(topicRepository.findSummaryById(topicId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(TopicNotFoundException.class, () -> topicService.getTopicById(topicId));
-        verify(topicRepository, times(1)).findById(topicId);
-        verify(topicDtoMapper, never()).toTopicDto(any());
+        verify(topicRepository, times(1)).findSummaryById(topicId);
+    }
+
+    @Test
+    void recomputesCommentAggregates() {
+        // Arrange
+        when(topicRepository.recomputeCommentAggregates()).thenReturn(3);
+
+        // Act
+        topicService.recomputeCommentAggregates();
+
+        // Assert
+        verify(topicRepository, times(1)).recomputeCommentAggregates();
     }
-}
\ No newline at end of file
+}
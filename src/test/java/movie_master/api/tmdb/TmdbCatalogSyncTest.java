@@ -0,0 +1,201 @@
+package movie_master.api.tmdb;
+
+import movie_master.api.cache.GenreRegistry;
+import movie_master.api.model.Genre;
+import movie_master.api.model.Movie;
+import movie_master.api.model.SyncState;
+import movie_master.api.repository.MovieBulkRepository;
+import movie_master.api.repository.MovieRepository;
+import movie_master.api.repository.SyncStateRepository;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class TmdbCatalogSyncTest {
+
+    @Mock private GenreRegistry genreRegistry;
+    @Mock private MovieRepository movieRepository;
+    @Mock private MovieBulkRepository movieBulkRepository;
+    @Mock private SyncStateRepository syncStateRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private static final String SYNC_NAME = TmdbCatalogSync.SYNC_NAME;
+    private final LocalDateTime now = LocalDateTime.parse("2026-10-18T10:00:00");
+    private final Genre drama = new Genre(18, "Drama");
+    private final Genre crime = new Genre(80, "Crime");
+    private final Genre war = new Genre(10752, "War");
+
+    private MockWebServer tmdb;
+    private TmdbCatalogSync catalogSync;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean changesFail;
+
+    @BeforeEach
+    void setup() throws IOException {
+        // Responses recorded from TMDB, 238 has been removed from TMDB since
+        tmdb = new MockWebServer();
+        tmdb.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                requests.add(request.getPath());
+                return switch (request.getRequestUrl().encodedPath()) {
+                    case "/3/genre/movie/list" -> fixture("genres.json");
+                    case "/3/movie/changes" -> changesFail ? new MockResponse().setResponseCode(503)
+                            : fixture("changes.json");
+                    case "/3/movie/278" -> fixture("movie_278.json");
+                    case "/3/movie/now_playing" -> fixture("now_playing.json");
+                    default -> new MockResponse().setResponseCode(404);
+                };
+            }
+        });
+        tmdb.start();
+
+        TmdbClient tmdbClient = new TmdbClient(tmdb.url("/3").toString(), "key", 1000);
+        TmdbMovieImporter importer = new TmdbMovieImporter(tmdbClient, genreRegistry, movieBulkRepository, 2, 500);
+        catalogSync = new TmdbCatalogSync(tmdbClient, importer, genreRegistry, movieRepository, movieBulkRepository,
+                syncStateRepository, eventPublisher, 2, 500, 1, Duration.ofMinutes(30),
+                Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        tmdb.shutdown();
+    }
+
+    private static MockResponse fixture(String name) {
+        try (InputStream fixture = TmdbCatalogSyncTest.class.getResourceAsStream("/tmdb/" + name)) {
+            return new MockResponse().setBody(new String(fixture.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void givenLockAndHighWaterMark(LocalDateTime highWaterMark) {
+        Mockito.when(syncStateRepository.tryLock(eq(SYNC_NAME), anyString(), eq(now), eq(now.plusMinutes(30))))
+                .thenReturn(1);
+        Mockito.when(syncStateRepository.findById(SYNC_NAME))
+                .thenReturn(Optional.of(new SyncState(SYNC_NAME, highWaterMark)));
+    }
+
+    @Test
+    void updatesChangedCatalogMoviesAndImportsNewReleases() {
+        // Given
+        givenLockAndHighWaterMark(LocalDateTime.parse("2026-10-17T09:30:00"));
+        Map<Long, Genre> genres = Map.of(18L, drama, 80L, crime, 10752L, war);
+        Mockito.when(genreRegistry.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(genres.get(invocation.<Long>getArgument(0))));
+        Mockito.when(movieRepository.findTmdbIdsByTmdbIdIn(List.of(278L, 238L, 1184918L))).thenReturn(List.of(278L, 238L));
+        Mockito.when(movieRepository.findIdsByTmdbIdIn(List.of(278L))).thenReturn(List.of(5L));
+
+        // When
+        catalogSync.sync();
+
+        // Then only the changes since the previous run are read
+        assertTrue(requests.contains("/3/movie/changes?start_date=2026-10-17&end_date=2026-10-18&page=1"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Genre>> syncedGenres = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(movieBulkRepository).upsertGenres(syncedGenres.capture());
+        assertEquals(List.of("Drama", "Crime", "War"), syncedGenres.getValue().stream().map(Genre::getName).toList());
+        Mockito.verify(genreRegistry).refresh();
+
+        // And the changed movie of the catalog is updated, the one removed from TMDB is kept as it is
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Movie>> updated = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(movieBulkRepository).upsertAll(updated.capture());
+        Movie shawshank = updated.getValue().iterator().next();
+        assertEquals(1, updated.getValue().size());
+        assertEquals(278L, shawshank.getTmdbId());
+        assertEquals(8.7, shawshank.getTmdbRating());
+        assertEquals("https://image.tmdb.org/t/p/original/9cqNxx0GxF0bflZmeSMuL5tnGzr.jpg", shawshank.getPosterPath());
+        assertEquals(Set.of(drama, crime), shawshank.getGenres());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Movie>> released = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(movieBulkRepository).insertAll(released.capture());
+        assertEquals(List.of(1184918L), released.getValue().stream().map(Movie::getTmdbId).toList());
+
+        // And the cached movies are evicted by their own ids
+        Mockito.verify(eventPublisher).publishEvent(new CatalogSyncedEvent(List.of(5L)));
+        Mockito.verify(syncStateRepository).updateHighWaterMark(SYNC_NAME, now);
+        Mockito.verify(syncStateRepository).unlock(eq(SYNC_NAME), anyString());
+    }
+
+    @Test
+    void skipsWhileAnotherNodeHoldsTheLock() {
+        // Given
+        Mockito.when(syncStateRepository.tryLock(eq(SYNC_NAME), anyString(), any(), any())).thenReturn(0);
+
+        // When
+        catalogSync.sync();
+
+        // Then
+        assertEquals(0, tmdb.getRequestCount());
+        Mockito.verify(syncStateRepository, Mockito.never()).updateHighWaterMark(any(), any());
+        Mockito.verify(syncStateRepository, Mockito.never()).unlock(any(), any());
+    }
+
+    @Test
+    void firstRunOnlyRecordsHighWaterMark() {
+        // Given
+        givenLockAndHighWaterMark(null);
+
+        // When
+        catalogSync.sync();
+
+        // Then
+        assertEquals(0, tmdb.getRequestCount());
+        Mockito.verify(syncStateRepository).updateHighWaterMark(SYNC_NAME, now);
+        Mockito.verify(syncStateRepository).unlock(eq(SYNC_NAME), anyString());
+    }
+
+    @Test
+    void keepsHighWaterMarkWhenTmdbFails() {
+        // Given
+        givenLockAndHighWaterMark(LocalDateTime.parse("2026-10-17T09:30:00"));
+        changesFail = true;
+
+        // When
+        catalogSync.sync();
+
+        // Then the next run starts from the same point
+        Mockito.verify(syncStateRepository, Mockito.never()).updateHighWaterMark(any(), any());
+        Mockito.verifyNoInteractions(eventPublisher);
+        Mockito.verify(syncStateRepository).unlock(eq(SYNC_NAME), anyString());
+    }
+}
@@ -0,0 +1,138 @@
+package movie_master.api.tmdb;
+
+import movie_master.api.cache.GenreRegistry;
+import movie_master.api.model.Genre;
+import movie_master.api.model.Movie;
+import movie_master.api.repository.MovieBulkRepository;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+@ExtendWith(MockitoExtension.class)
+class TmdbMovieImporterTest {
+
+    @Mock private GenreRegistry genreRegistry;
+    @Mock private MovieBulkRepository movieBulkRepository;
+
+    private MockWebServer tmdb;
+    private TmdbMovieImporter importer;
+    private final AtomicInteger rateLimited = new AtomicInteger();
+
+    // Page 1 and 2 share The Godfather, as happens when the ranking changes during an import
+    private static final String PAGE_1 = """
+            {"page": 1, "results": [
+              {"id": 278, "title": "The Shawshank Redemption", "overview": "Imprisoned in the 1940s",
+               "release_date": "1994-09-23", "original_language": "en", "poster_path": "/shawshank.jpg",
+               "vote_average": 8.7, "genre_ids": [18, 80]},
+              {"id": 238, "title": "The Godfather", "overview": "Spanning the years 1945 to 1955",
+               "release_date": "1972-03-14", "original_language": "en", "poster_path": "/godfather.jpg",
+               "vote_average": 8.7, "genre_ids": [18, 80]}
+            ]}""";
+    private static final String PAGE_2 = """
+            {"page": 2, "results": [
+              {"id": 238, "title": "The Godfather", "overview": "Spanning the years 1945 to 1955",
+               "release_date": "1972-03-14", "original_language": "en", "poster_path": "/godfather.jpg",
+               "vote_average": 8.7, "genre_ids": [18, 80]},
+              {"id": 129, "title": "Spirited Away", "overview": "A young girl wanders into the world of gods",
+               "release_date": "2001-07-20", "original_language": "ja", "poster_path": "/spirited.jpg",
+               "vote_average": 8.5, "genre_ids": [16, 99999]}
+            ]}""";
+
+    @BeforeEach
+    void setup() throws IOException {
+        tmdb = new MockWebServer();
+        tmdb.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String page = request.getRequestUrl().queryParameter("page");
+                if ("2".equals(page) && rateLimited.getAndIncrement() == 0) {
+                    return new MockResponse().setResponseCode(429).setHeader("Retry-After", "1");
+                }
+                return switch (page) {
+                    case "1" -> new MockResponse().setBody(PAGE_1);
+                    case "2" -> new MockResponse().setBody(PAGE_2);
+                    default -> new MockResponse().setResponseCode(500);
+                };
+            }
+        });
+        tmdb.start();
+
+        TmdbClient tmdbClient = new TmdbClient(tmdb.url("/3").toString(), "key", 1000);
+        importer = new TmdbMovieImporter(tmdbClient, genreRegistry, movieBulkRepository, 4, 500);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        tmdb.shutdown();
+    }
+
+    @Test
+    void importsDistinctMoviesOfAllPagesInOneBatch() {
+        // Given
+        Genre drama = new Genre(18, "Drama");
+        Genre crime = new Genre(80, "Crime");
+        Genre animation = new Genre(16, "Animation");
+        Map<Long, Genre> genres = Map.of(18L, drama, 80L, crime, 16L, animation);
+        Mockito.when(genreRegistry.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(genres.get(invocation.<Long>getArgument(0))));
+        List<Collection<Movie>> batches = new ArrayList<>();
+        Mockito.doAnswer(invocation -> batches.add(List.copyOf(invocation.<Collection<Movie>>getArgument(0))))
+                .when(movieBulkRepository).insertAll(Mockito.any());
+
+        // When
+        int imported = importer.importTopRated(2);
+
+        // Then
+        assertEquals(3, imported);
+        assertEquals(1, batches.size());
+        List<Movie> movies = List.copyOf(batches.get(0));
+        assertEquals(List.of(278L, 238L, 129L), movies.stream().map(Movie::getTmdbId).toList());
+        assertEquals("https://image.tmdb.org/t/p/original/spirited.jpg", movies.get(2).getPosterPath());
+        assertEquals(Set.of(drama, crime), movies.get(0).getGenres());
+        assertEquals(Set.of(animation), movies.get(2).getGenres());
+    }
+
+    @Test
+    void writesBatchesWhileImporting() {
+        // Given
+        importer = new TmdbMovieImporter(new TmdbClient(tmdb.url("/3").toString(), "key", 1000),
+                genreRegistry, movieBulkRepository, 2, 2);
+        Mockito.when(genreRegistry.findById(anyLong())).thenReturn(Optional.empty());
+
+        // When
+        importer.importTopRated(2);
+
+        // Then the first page fills a batch, the remaining movie is written at the end
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Movie>> batches = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(movieBulkRepository, Mockito.times(2)).insertAll(batches.capture());
+        assertEquals(List.of(2, 1), batches.getAllValues().stream().map(Collection::size).toList());
+    }
+
+    @Test
+    void failsWhenPageCannotBeFetched() {
+        assertThrows(IllegalStateException.class, () -> importer.importTopRated(3));
+    }
+}